@@ -0,0 +1,181 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Measures {@link NFASimulator#readSequence(List)} of every simulation engine on synthetic
+ * automata. Size is number of states of automaton and length is number of symbols in sequence.
+ * Generated automaton has alphabet of {@link #ALPHABET_SIZE} symbols, about
+ * {@link #TRANSITIONS_PER_STATE} transitions and one epsilon-transition per state, and every
+ * fourth state is acceptable.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class NFABenchmark extends Benchmark {
+
+  /** Number of symbols of generated automaton. */
+  private static final int ALPHABET_SIZE = 4;
+
+  /** Number of transitions over symbols from each state of generated automaton. */
+  private static final int TRANSITIONS_PER_STATE = 6;
+
+  /** Engine which is measured. */
+  private NFASimulator engine;
+
+  /** Sequence which engine reads. */
+  private List<Symbol> sequence;
+
+  /**
+   * Program entry. Options are described in {@link Benchmark}.
+   *
+   * @param args - command line options
+   * @throws Exception if benchmark fails
+   */
+  public static void main(final String[] args) throws Exception {
+    execute(new NFABenchmark(), args);
+  }
+
+  @Override
+  protected String name() {
+    return "NFA.readSequence";
+  }
+
+  @Override
+  protected String[] variants() {
+    return new String[] {"NFA", "NFA-eager", "BitsetNFA", "BitParallelNFA", "LazyDFA",
+        "SubsetDFA"};
+  }
+
+  @Override
+  protected int[] defaultSizes() {
+    return new int[] {10, 100};
+  }
+
+  @Override
+  protected int[] defaultLengths() {
+    return new int[] {100, 1000};
+  }
+
+  @Override
+  protected void setUp(final String variant, final int size, final int length) {
+    Random random = new Random(seed);
+    sequence = generateSequence(random, length);
+    NFA nfa = generateNFA(random, size, !variant.equals("NFA"));
+    switch (variant) {
+      case "NFA":
+      case "NFA-eager":
+        engine = nfa;
+        break;
+      case "BitsetNFA":
+        engine = new BitsetNFA(nfa);
+        break;
+      case "BitParallelNFA":
+        engine = BitParallelNFA.create(nfa);
+        break;
+      case "LazyDFA":
+        engine = new LazyDFA(nfa);
+        break;
+      case "SubsetDFA":
+        engine = SubsetConstruction.compileOrSimulate(nfa, SubsetConstruction.DEFAULT_MAX_STATES);
+        break;
+      default:
+        throw new IllegalArgumentException("unknown variant " + variant);
+    }
+  }
+
+  @Override
+  protected Object run() {
+    engine.resetAutomaton();
+    return engine.readSequence(sequence);
+  }
+
+  /**
+   * Returns random automaton with given number of states.
+   *
+   * @param random - generator of random numbers
+   * @param size - number of states
+   * @param eagerEpsilonClosure - <code>true</code> if epsilon-closures should be computed at
+   *        construction
+   * @return random automaton
+   */
+  static NFA generateNFA(final Random random, final int size, final boolean eagerEpsilonClosure) {
+    SortedSet<State> states = new TreeSet<>();
+    List<State> stateList = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      State state = State.of("q" + i);
+      states.add(state);
+      stateList.add(state);
+    }
+    SortedSet<Symbol> alphabet = new TreeSet<>();
+    for (int i = 0; i < ALPHABET_SIZE; i++) {
+      alphabet.add(symbol(i));
+    }
+
+    Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction = new HashMap<>();
+    Symbol epsilon = Symbol.of("");
+    SortedSet<State> acceptableStates = new TreeSet<>();
+    for (State state : stateList) {
+      for (int i = 0; i < TRANSITIONS_PER_STATE; i++) {
+        addTransition(transitionFunction, state, symbol(random.nextInt(ALPHABET_SIZE)),
+            stateList.get(random.nextInt(size)));
+      }
+      addTransition(transitionFunction, state, epsilon, stateList.get(random.nextInt(size)));
+      if (random.nextInt(4) == 0) {
+        acceptableStates.add(state);
+      }
+    }
+
+    return new NFA(states, alphabet, transitionFunction, stateList.get(0), acceptableStates,
+        eagerEpsilonClosure);
+  }
+
+  /**
+   * Returns random sequence of symbols of generated automaton.
+   *
+   * @param random - generator of random numbers
+   * @param length - length of sequence
+   * @return random sequence
+   */
+  static List<Symbol> generateSequence(final Random random, final int length) {
+    List<Symbol> sequence = new ArrayList<>(length);
+    for (int i = 0; i < length; i++) {
+      sequence.add(symbol(random.nextInt(ALPHABET_SIZE)));
+    }
+    return sequence;
+  }
+
+  /**
+   * Returns symbol with given number.
+   *
+   * @param i - number of symbol
+   * @return symbol with given number
+   */
+  private static Symbol symbol(final int i) {
+    return Symbol.of(String.valueOf((char) ('a' + i)));
+  }
+
+  /**
+   * Adds transition to given transition function.
+   *
+   * @param transitionFunction - transition function
+   * @param from - state from which transition goes
+   * @param symbol - symbol of transition
+   * @param to - state to which transition goes
+   */
+  private static void addTransition(
+      final Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction, final State from,
+      final Symbol symbol, final State to) {
+    Pair<State, Symbol> pair = new Pair<>(from, symbol);
+    SortedSet<State> targets = transitionFunction.get(pair);
+    if (targets == null) {
+      targets = new TreeSet<>();
+      transitionFunction.put(pair, targets);
+    }
+    targets.add(to);
+  }
+
+}
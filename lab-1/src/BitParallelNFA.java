@@ -0,0 +1,294 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Simulation engine for small <i>Nondeterministic Finite Automaton</i> whose states fit in one or
+ * two <code>long</code> words, that is automaton with at most {@link #MAX_STATES} states. Current
+ * state is kept in two words and epsilon-closures are folded into transitions, so epsilon-moves
+ * cost nothing while reading. <br>
+ * For every symbol, next states are precomputed for each byte of current state: bits of current
+ * state are read eight at a time and next state is union of at most sixteen table entries, so
+ * each symbol costs a few array lookups and bitwise operations, regardless of how many states
+ * automaton is in. Symbols are found by their id, so reading a symbol does not hash. Lists of
+ * states are cached for each reached set of states, so reading does not allocate once sets
+ * repeat. Lists returned by this engine cannot be modified. <br>
+ * Use {@link #create(NFA)} to get this engine when automaton fits and more general engine
+ * otherwise.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class BitParallelNFA implements NFASimulator {
+
+  /** Maximal number of states of automaton simulated by this engine. */
+  public static final int MAX_STATES = 2 * Long.SIZE;
+
+  /** Maximal size of transition tables in bytes. Larger automata are not simulated this way. */
+  public static final long MAX_TABLE_SIZE = 16L * 1024 * 1024;
+
+  /** Number of bits of current state used as index into transition table. */
+  private static final int CHUNK_BITS = 8;
+
+  /** Number of entries of transition table for one chunk of current state. */
+  private static final int CHUNK_VALUES = 1 << CHUNK_BITS;
+
+  /** Number of chunks in one word. */
+  private static final int CHUNKS_PER_WORD = Long.SIZE / CHUNK_BITS;
+
+  /** Maximal number of cached lists of states. When exceeded, cache is emptied. */
+  private static final int MAX_CACHED_LISTS = 1 << 12;
+
+  /** Engine from which tables are built, used to convert bitsets to states. */
+  private final BitsetNFA nfa;
+
+  /** Number of symbol for each symbol id, or <code>-1</code> if automaton does not know it. */
+  private final int[] symbolIndex;
+
+  /** Number of chunks of current state, <code>8</code> or <code>16</code>. */
+  private final int chunks;
+
+  /**
+   * Low word of next states for each symbol, chunk of current state and value of that chunk,
+   * stored at index <code>((symbol * chunks + chunk) << 8) | value</code>.
+   */
+  private final long[] lowTable;
+
+  /** High word of next states, laid out as {@link #lowTable}, or <code>null</code> if unused. */
+  private final long[] highTable;
+
+  /** Low word of epsilon-closure of initial state. */
+  private final long initialLow;
+
+  /** High word of epsilon-closure of initial state. */
+  private final long initialHigh;
+
+  /** Low word of current states. */
+  private long currentLow;
+
+  /** High word of current states. */
+  private long currentHigh;
+
+  /** Low words of sets of states whose lists are cached, in open addressing table. */
+  private final long[] cachedLows = new long[2 * MAX_CACHED_LISTS];
+
+  /** High words of sets of states whose lists are cached, in open addressing table. */
+  private final long[] cachedHighs = new long[2 * MAX_CACHED_LISTS];
+
+  /** Cached lists of states, in open addressing table. */
+  private final List<?>[] cachedLists = new List<?>[2 * MAX_CACHED_LISTS];
+
+  /** Number of cached lists. */
+  private int cacheSize;
+
+  /**
+   * Creates new engine from given bitset engine, which must have at most {@link #MAX_STATES}
+   * states.
+   *
+   * @param nfa - bitset engine of automaton
+   */
+  private BitParallelNFA(final BitsetNFA nfa) {
+    this.nfa = nfa;
+    int symbolCount = nfa.symbolCount();
+    chunks = nfa.stateCount() <= Long.SIZE ? CHUNKS_PER_WORD : 2 * CHUNKS_PER_WORD;
+
+    int maxId = -1;
+    for (int symbol = 0; symbol < symbolCount; symbol++) {
+      maxId = Math.max(maxId, nfa.symbol(symbol).getId());
+    }
+    symbolIndex = new int[maxId + 1];
+    Arrays.fill(symbolIndex, -1);
+    for (int symbol = 0; symbol < symbolCount; symbol++) {
+      symbolIndex[nfa.symbol(symbol).getId()] = symbol;
+    }
+
+    lowTable = new long[symbolCount * chunks * CHUNK_VALUES];
+    highTable = chunks > CHUNKS_PER_WORD ? new long[lowTable.length] : null;
+    long[] from = new long[nfa.words()];
+    long[] to = new long[nfa.words()];
+    for (int symbol = 0; symbol < symbolCount; symbol++) {
+      for (int chunk = 0; chunk < chunks; chunk++) {
+        int base = (symbol * chunks + chunk) * CHUNK_VALUES;
+        for (int bit = 0; bit < CHUNK_BITS; bit++) {
+          int state = chunk * CHUNK_BITS + bit;
+          if (state >= nfa.stateCount()) {
+            break;
+          }
+          Arrays.fill(from, 0L);
+          from[state / Long.SIZE] = 1L << (state % Long.SIZE);
+          nfa.step(from, symbol, to);
+          // every value with this bit as its highest bit is value without it plus this state
+          for (int value = 1 << bit; value < 2 << bit; value++) {
+            int rest = base + (value & ~(1 << bit));
+            lowTable[base + value] = lowTable[rest] | to[0];
+            if (highTable != null) {
+              highTable[base + value] = highTable[rest] | to[1];
+            }
+          }
+        }
+      }
+    }
+
+    long[] initialState = nfa.initialStateBits();
+    initialLow = initialState[0];
+    initialHigh = initialState.length > 1 ? initialState[1] : 0L;
+    currentLow = initialLow;
+    currentHigh = initialHigh;
+  }
+
+  /**
+   * Creates new engine which shares all tables with given engine. Its current state is set to
+   * epsilon-closure of initial state.
+   *
+   * @param engine - engine whose tables are shared
+   */
+  private BitParallelNFA(final BitParallelNFA engine) {
+    nfa = engine.nfa;
+    symbolIndex = engine.symbolIndex;
+    chunks = engine.chunks;
+    lowTable = engine.lowTable;
+    highTable = engine.highTable;
+    initialLow = engine.initialLow;
+    initialHigh = engine.initialHigh;
+    currentLow = initialLow;
+    currentHigh = initialHigh;
+  }
+
+  /**
+   * Returns simulation engine for given automaton. If it has at most {@link #MAX_STATES} states
+   * and its transition tables fit in {@link #MAX_TABLE_SIZE} bytes, bit-parallel engine is
+   * returned, otherwise automaton is simulated with {@link LazyDFA}. Epsilon-closures are
+   * computed once, for either engine.
+   *
+   * @param nfa - automaton to simulate
+   * @return simulation engine for given automaton
+   */
+  public static NFASimulator create(final NFA nfa) {
+    BitsetNFA bitsetNfa = new BitsetNFA(nfa);
+    if (!fits(bitsetNfa)) {
+      return new LazyDFA(bitsetNfa);
+    }
+    return new BitParallelNFA(bitsetNfa);
+  }
+
+  /**
+   * Returns <code>true</code> if automaton of given engine can be simulated by this engine.
+   *
+   * @param nfa - bitset engine of automaton
+   * @return <code>true</code> if automaton can be simulated by this engine
+   */
+  private static boolean fits(final BitsetNFA nfa) {
+    if (nfa.stateCount() > MAX_STATES) {
+      return false;
+    }
+    int words = nfa.stateCount() <= Long.SIZE ? 1 : 2;
+    long tableSize = (long) nfa.symbolCount() * words * CHUNKS_PER_WORD * CHUNK_VALUES * words
+        * (Long.SIZE / Byte.SIZE);
+    return tableSize <= MAX_TABLE_SIZE;
+  }
+
+  @Override
+  public List<State> readSymbol(final Symbol symbol) {
+    step(symbol);
+    return states(currentLow, currentHigh);
+  }
+
+  @Override
+  public List<List<State>> readSequence(final List<Symbol> sequence) {
+    List<List<State>> states = new ArrayList<>(sequence.size());
+    for (Symbol symbol : sequence) {
+      states.add(readSymbol(symbol));
+    }
+    return states;
+  }
+
+  /**
+   * Moves automaton to states in which it will be after it reads given symbol.
+   *
+   * @param symbol - symbol for automaton to read
+   */
+  private void step(final Symbol symbol) {
+    int id = symbol.getId();
+    int index = id < symbolIndex.length ? symbolIndex[id] : -1;
+    if (index < 0) {
+      currentLow = 0L;
+      currentHigh = 0L;
+      return;
+    }
+
+    long low = 0L;
+    long high = 0L;
+    int entry = index * chunks * CHUNK_VALUES;
+    for (long bits = currentLow; bits != 0; bits >>>= CHUNK_BITS, entry += CHUNK_VALUES) {
+      int value = (int) bits & (CHUNK_VALUES - 1);
+      low |= lowTable[entry + value];
+      if (highTable != null) {
+        high |= highTable[entry + value];
+      }
+    }
+    entry = (index * chunks + CHUNKS_PER_WORD) * CHUNK_VALUES;
+    for (long bits = currentHigh; bits != 0; bits >>>= CHUNK_BITS, entry += CHUNK_VALUES) {
+      int value = (int) bits & (CHUNK_VALUES - 1);
+      low |= lowTable[entry + value];
+      high |= highTable[entry + value];
+    }
+    currentLow = low;
+    currentHigh = high;
+  }
+
+  @Override
+  public List<State> resetAutomaton() {
+    currentLow = initialLow;
+    currentHigh = initialHigh;
+    return states(currentLow, currentHigh);
+  }
+
+  @Override
+  public List<State> getCurrentState() {
+    return states(currentLow, currentHigh);
+  }
+
+  @Override
+  public List<State> getInitialState() {
+    return states(initialLow, initialHigh);
+  }
+
+  @Override
+  public BitParallelNFA copy() {
+    return new BitParallelNFA(this);
+  }
+
+  /**
+   * Returns list of states in given set, taken from cache if possible.
+   *
+   * @param low - low word of set of states
+   * @param high - high word of set of states
+   * @return unmodifiable list of states in alphabetical order
+   */
+  @SuppressWarnings("unchecked")
+  private List<State> states(final long low, final long high) {
+    long hash = low * 0x9E3779B97F4A7C15L + high;
+    int mask = cachedLists.length - 1;
+    int index = (int) (hash ^ (hash >>> 32)) & mask;
+    while (cachedLists[index] != null) {
+      if (cachedLows[index] == low && cachedHighs[index] == high) {
+        return (List<State>) cachedLists[index];
+      }
+      index = (index + 1) & mask;
+    }
+
+    if (cacheSize == MAX_CACHED_LISTS) {
+      Arrays.fill(cachedLists, null);
+      cacheSize = 0;
+      index = (int) (hash ^ (hash >>> 32)) & mask;
+    }
+    long[] bits = chunks > CHUNKS_PER_WORD ? new long[] {low, high} : new long[] {low};
+    List<State> states = Collections.unmodifiableList(nfa.toStates(bits));
+    cachedLows[index] = low;
+    cachedHighs[index] = high;
+    cachedLists[index] = states;
+    cacheSize++;
+    return states;
+  }
+
+}
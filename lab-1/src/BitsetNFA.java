@@ -0,0 +1,340 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Simulation engine of <i>Nondeterministic Finite Automaton</i> which interns states and symbols
+ * to dense integers. Current state and epsilon-closures are kept as bitsets of <code>long</code>
+ * words, so reading a symbol is a word-parallel <i>OR</i> of precomputed transition bitsets.
+ * States are numbered in alphabetical order, so iterating over bits yields the same order as
+ * {@link NFA} does.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public class BitsetNFA implements NFASimulator {
+
+  /** Number of bits in one bitset word. */
+  private static final int WORD_SIZE = 64;
+
+  /** States of automaton, indexed by their number. */
+  private final State[] states;
+
+  /** Maps state to its number. */
+  private final Map<State, Integer> stateIndex;
+
+  /** Maps symbol to its number. */
+  private final Map<Symbol, Integer> symbolIndex;
+
+  /** Symbols of automaton, indexed by their number. */
+  private final Symbol[] symbols;
+
+  /** Number of <code>long</code> words in one bitset. */
+  private final int words;
+
+  /**
+   * Epsilon-closure of transition states for each pair <i>(state, symbol)</i>, stored at index
+   * <code>state * symbolCount + symbol</code>. Element is <code>null</code> if transition is not
+   * defined.
+   */
+  private final long[][] transitions;
+
+  /** Epsilon-closure of initial state. */
+  private final long[] initialState;
+
+  /** Current states of automaton. */
+  private long[] currentState;
+
+  /** Buffer for states of next step. */
+  private long[] nextState;
+
+  /**
+   * Creates new bitset engine from given <i>NFA</i>.
+   *
+   * @param nfa - automaton to simulate
+   */
+  public BitsetNFA(final NFA nfa) {
+    Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction = nfa.getTransitionFunction();
+
+    SortedSet<State> allStates = new TreeSet<>(nfa.getStates());
+    allStates.addAll(nfa.getInitialState());
+    SortedSet<Symbol> allSymbols = new TreeSet<>(nfa.getAlphabet());
+    for (Map.Entry<Pair<State, Symbol>, SortedSet<State>> entry : transitionFunction.entrySet()) {
+      allStates.add(entry.getKey().getFirst());
+      allStates.addAll(entry.getValue());
+      allSymbols.add(entry.getKey().getSecond());
+    }
+
+    states = allStates.toArray(new State[allStates.size()]);
+    stateIndex = new HashMap<>();
+    symbolIndex = new HashMap<>();
+    for (int i = 0; i < states.length; i++) {
+      stateIndex.put(states[i], i);
+    }
+    symbols = allSymbols.toArray(new Symbol[allSymbols.size()]);
+    for (int i = 0; i < symbols.length; i++) {
+      symbolIndex.put(symbols[i], i);
+    }
+    words = Math.max(1, (states.length + WORD_SIZE - 1) / WORD_SIZE);
+
+    long[][] closures = epsilonClosures(new EpsilonClosureTable(allStates, transitionFunction));
+
+    int symbolCount = symbolIndex.size();
+    transitions = new long[states.length * symbolCount][];
+    for (Map.Entry<Pair<State, Symbol>, SortedSet<State>> entry : transitionFunction.entrySet()) {
+      long[] closure = new long[words];
+      for (State state : entry.getValue()) {
+        or(closure, closures[stateIndex.get(state)]);
+      }
+      int state = stateIndex.get(entry.getKey().getFirst());
+      int symbol = symbolIndex.get(entry.getKey().getSecond());
+      transitions[state * symbolCount + symbol] = closure;
+    }
+
+    initialState = new long[words];
+    for (State state : nfa.getInitialState()) {
+      set(initialState, stateIndex.get(state));
+    }
+    currentState = initialState.clone();
+    nextState = new long[words];
+  }
+
+  /**
+   * Creates new engine which shares all precomputed tables with given engine. Its current state is
+   * set to epsilon-closure of initial state.
+   *
+   * @param nfa - engine whose tables are shared
+   */
+  private BitsetNFA(final BitsetNFA nfa) {
+    states = nfa.states;
+    symbols = nfa.symbols;
+    stateIndex = nfa.stateIndex;
+    symbolIndex = nfa.symbolIndex;
+    words = nfa.words;
+    transitions = nfa.transitions;
+    initialState = nfa.initialState;
+    currentState = initialState.clone();
+    nextState = new long[words];
+  }
+
+  /**
+   * Returns epsilon-closure of every state as bitset. States of the same strongly connected
+   * component share one closure in given table, so they also share one bitset.
+   *
+   * @param closureTable - epsilon-closures of automaton states
+   * @return epsilon-closure of every state, indexed by state number
+   */
+  private long[][] epsilonClosures(final EpsilonClosureTable closureTable) {
+    Map<SortedSet<State>, long[]> bitsets = new IdentityHashMap<>();
+    long[][] closures = new long[states.length][];
+    for (int i = 0; i < states.length; i++) {
+      SortedSet<State> closure = closureTable.get(states[i]);
+      long[] bitset = bitsets.get(closure);
+      if (bitset == null) {
+        bitset = new long[words];
+        for (State state : closure) {
+          set(bitset, stateIndex.get(state));
+        }
+        bitsets.put(closure, bitset);
+      }
+      closures[i] = bitset;
+    }
+    return closures;
+  }
+
+  @Override
+  public List<State> readSymbol(final Symbol symbol) {
+    step(symbol);
+    return toStates(currentState);
+  }
+
+  @Override
+  public List<List<State>> readSequence(final List<Symbol> sequence) {
+    List<List<State>> states = new ArrayList<>();
+    for (Symbol symbol : sequence) {
+      states.add(readSymbol(symbol));
+    }
+    return states;
+  }
+
+  /**
+   * Moves automaton to states in which it will be after it reads given symbol.
+   *
+   * @param symbol - symbol for automaton to read
+   */
+  private void step(final Symbol symbol) {
+    step(currentState, symbolIndex(symbol), nextState);
+    long[] next = nextState;
+    nextState = currentState;
+    currentState = next;
+  }
+
+  /**
+   * Writes states in which automaton will be after it reads symbol with given number while being
+   * in states <code>from</code> into <code>to</code>.
+   *
+   * @param from - bitset of current states
+   * @param symbol - number of symbol to read, or <code>-1</code> if symbol is unknown
+   * @param to - bitset into which next states are written
+   */
+  void step(final long[] from, final int symbol, final long[] to) {
+    Arrays.fill(to, 0L);
+    if (symbol < 0) {
+      return;
+    }
+
+    int symbolCount = symbolIndex.size();
+    for (int word = 0; word < words; word++) {
+      long bits = from[word];
+      while (bits != 0) {
+        int state = word * WORD_SIZE + Long.numberOfTrailingZeros(bits);
+        long[] transition = transitions[state * symbolCount + symbol];
+        if (transition != null) {
+          or(to, transition);
+        }
+        bits &= bits - 1;
+      }
+    }
+  }
+
+  /**
+   * Returns number of given symbol.
+   *
+   * @param symbol - symbol whose number is returned
+   * @return number of given symbol, or <code>-1</code> if automaton does not know given symbol
+   */
+  int symbolIndex(final Symbol symbol) {
+    Integer index = symbolIndex.get(symbol);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Returns symbol with given number.
+   *
+   * @param index - number of symbol
+   * @return symbol with given number
+   */
+  Symbol symbol(final int index) {
+    return symbols[index];
+  }
+
+  /**
+   * Returns number of symbols known to this engine.
+   *
+   * @return number of symbols known to this engine
+   */
+  int symbolCount() {
+    return symbolIndex.size();
+  }
+
+  /**
+   * Returns number of states known to this engine.
+   *
+   * @return number of states known to this engine
+   */
+  int stateCount() {
+    return states.length;
+  }
+
+  /**
+   * Returns number of <code>long</code> words in one bitset of states.
+   *
+   * @return number of <code>long</code> words in one bitset of states
+   */
+  int words() {
+    return words;
+  }
+
+  /**
+   * Returns bitset of epsilon-closure of initial state. Returned bitset must not be modified.
+   *
+   * @return bitset of epsilon-closure of initial state
+   */
+  long[] initialStateBits() {
+    return initialState;
+  }
+
+  @Override
+  public List<State> resetAutomaton() {
+    System.arraycopy(initialState, 0, currentState, 0, words);
+    return toStates(currentState);
+  }
+
+  @Override
+  public List<State> getCurrentState() {
+    return toStates(currentState);
+  }
+
+  @Override
+  public List<State> getInitialState() {
+    return toStates(initialState);
+  }
+
+  @Override
+  public BitsetNFA copy() {
+    return new BitsetNFA(this);
+  }
+
+  /**
+   * Returns bitset of given states. States unknown to this engine are ignored.
+   *
+   * @param states - states to put in bitset
+   * @return bitset of given states
+   */
+  long[] toBits(final Collection<State> states) {
+    long[] bitset = new long[words];
+    for (State state : states) {
+      Integer index = stateIndex.get(state);
+      if (index != null) {
+        set(bitset, index);
+      }
+    }
+    return bitset;
+  }
+
+  /**
+   * Returns states which are set in given bitset, in alphabetical order.
+   *
+   * @param bitset - bitset of states
+   * @return states which are set in given bitset
+   */
+  List<State> toStates(final long[] bitset) {
+    List<State> list = new ArrayList<>();
+    for (int word = 0; word < words; word++) {
+      long bits = bitset[word];
+      while (bits != 0) {
+        list.add(states[word * WORD_SIZE + Long.numberOfTrailingZeros(bits)]);
+        bits &= bits - 1;
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Adds all bits of <code>source</code> to <code>target</code>.
+   *
+   * @param target - bitset to which bits are added
+   * @param source - bitset whose bits are added
+   */
+  private static void or(final long[] target, final long[] source) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] |= source[i];
+    }
+  }
+
+  /**
+   * Sets bit at given index.
+   *
+   * @param bitset - bitset to modify
+   * @param index - index of bit
+   */
+  private static void set(final long[] bitset, final int index) {
+    bitset[index / WORD_SIZE] |= 1L << (index % WORD_SIZE);
+  }
+
+}
@@ -0,0 +1,177 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Immutable table of epsilon-closures of all states of <i>NFA</i>. Closures are computed at once
+ * with <i>Tarjan's</i> algorithm over epsilon-transitions: every strongly connected component is
+ * collapsed and components are visited in reverse topological order, so closure of a component is
+ * union of its states and already computed closures of its successors. States of the same
+ * component share one closure instance.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class EpsilonClosureTable {
+
+  /** Represents <i>epsilon</i> symbol. */
+  private static final Symbol epsilonSymbol = Symbol.of("");
+
+  /** Epsilon-closure of each state. */
+  private final Map<State, SortedSet<State>> closures = new HashMap<>();
+
+  /**
+   * Computes epsilon-closures of given states and of all states which appear in given transition
+   * function.
+   *
+   * @param states - states of <i>NFA</i>
+   * @param transitionFunction - transition function of <i>NFA</i>
+   */
+  public EpsilonClosureTable(final Collection<State> states,
+      final Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction) {
+    SortedSet<State> allStates = new TreeSet<>(states);
+    for (Map.Entry<Pair<State, Symbol>, SortedSet<State>> entry : transitionFunction.entrySet()) {
+      allStates.add(entry.getKey().getFirst());
+      allStates.addAll(entry.getValue());
+    }
+
+    State[] stateArray = allStates.toArray(new State[allStates.size()]);
+    Map<State, Integer> stateIndex = new HashMap<>();
+    for (int i = 0; i < stateArray.length; i++) {
+      stateIndex.put(stateArray[i], i);
+    }
+
+    int[][] edges = new int[stateArray.length][];
+    for (int i = 0; i < stateArray.length; i++) {
+      SortedSet<State> neighbours =
+          transitionFunction.get(new Pair<>(stateArray[i], epsilonSymbol));
+      edges[i] = new int[neighbours == null ? 0 : neighbours.size()];
+      int j = 0;
+      if (neighbours != null) {
+        for (State neighbour : neighbours) {
+          edges[i][j++] = stateIndex.get(neighbour);
+        }
+      }
+    }
+
+    computeClosures(stateArray, edges);
+  }
+
+  /**
+   * Finds strongly connected components of epsilon-transitions and computes closure of each of
+   * them. Implemented iteratively, so long epsilon-chains do not overflow the stack.
+   *
+   * @param stateArray - states indexed by their number
+   * @param edges - epsilon-transitions of each state
+   */
+  private void computeClosures(final State[] stateArray, final int[][] edges) {
+    int n = stateArray.length;
+    int[] index = new int[n];
+    int[] lowLink = new int[n];
+    int[] component = new int[n];
+    boolean[] onStack = new boolean[n];
+    Arrays.fill(index, -1);
+
+    int[] stack = new int[n];
+    int stackSize = 0;
+    int[] callStack = new int[n];
+    int[] edgePosition = new int[n];
+    int nextIndex = 0;
+
+    List<SortedSet<State>> componentClosures = new ArrayList<>();
+
+    for (int root = 0; root < n; root++) {
+      if (index[root] != -1) {
+        continue;
+      }
+      int depth = 0;
+      callStack[depth] = root;
+      edgePosition[root] = 0;
+      index[root] = lowLink[root] = nextIndex++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+
+      while (depth >= 0) {
+        int v = callStack[depth];
+        if (edgePosition[v] < edges[v].length) {
+          int w = edges[v][edgePosition[v]++];
+          if (index[w] == -1) {
+            index[w] = lowLink[w] = nextIndex++;
+            edgePosition[w] = 0;
+            stack[stackSize++] = w;
+            onStack[w] = true;
+            callStack[++depth] = w;
+          } else if (onStack[w]) {
+            lowLink[v] = Math.min(lowLink[v], index[w]);
+          }
+          continue;
+        }
+
+        if (lowLink[v] == index[v]) {
+          int id = componentClosures.size();
+          SortedSet<State> closure = new TreeSet<>();
+          int start = stackSize;
+          do {
+            start--;
+            onStack[stack[start]] = false;
+            component[stack[start]] = id;
+          } while (stack[start] != v);
+
+          for (int i = start; i < stackSize; i++) {
+            int state = stack[i];
+            closure.add(stateArray[state]);
+            for (int neighbour : edges[state]) {
+              if (component[neighbour] != id) {
+                closure.addAll(componentClosures.get(component[neighbour]));
+              }
+            }
+          }
+
+          SortedSet<State> immutableClosure = Collections.unmodifiableSortedSet(closure);
+          componentClosures.add(immutableClosure);
+          for (int i = start; i < stackSize; i++) {
+            closures.put(stateArray[stack[i]], immutableClosure);
+          }
+          stackSize = start;
+        }
+
+        depth--;
+        if (depth >= 0) {
+          int parent = callStack[depth];
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns all states whose epsilon-closures are in this table.
+   *
+   * @return all states whose epsilon-closures are in this table
+   */
+  public Set<State> getStates() {
+    return Collections.unmodifiableSet(closures.keySet());
+  }
+
+  /**
+   * Returns epsilon-closure of given state. Returned set cannot be modified. If given state is not
+   * known to this table, its epsilon-closure contains only given state.
+   *
+   * @param state - state for which to return epsilon-closure
+   * @return epsilon-closure of given state
+   */
+  public SortedSet<State> get(final State state) {
+    SortedSet<State> closure = closures.get(state);
+    if (closure == null) {
+      return Collections.unmodifiableSortedSet(new TreeSet<>(Collections.singleton(state)));
+    }
+    return closure;
+  }
+
+}
@@ -0,0 +1,247 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulation engine of <i>Nondeterministic Finite Automaton</i> which determinizes automaton on
+ * the fly. Every reached set of <i>NFA</i> states is remembered as one state of <i>DFA</i> and its
+ * successor for each read symbol is cached, so repeated steps are a single array lookup. Cache has
+ * bounded memory budget; when it is full, cache is flushed and filled again from current state.
+ * <br>
+ * Lists of states returned by this engine are cached as well and cannot be modified.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public class LazyDFA implements NFASimulator {
+
+  /** Default memory budget of cache in bytes. */
+  public static final long DEFAULT_MEMORY_BUDGET = 8L * 1024 * 1024;
+
+  /** Marks successor which is not computed yet. */
+  private static final int UNKNOWN = -1;
+
+  /** Estimated memory overhead of one cached state besides its bitset and successors. */
+  private static final int STATE_OVERHEAD = 96;
+
+  /** Engine which computes successors of sets of states. */
+  private final BitsetNFA nfa;
+
+  /** Number of symbols known to automaton. */
+  private final int symbolCount;
+
+  /** Memory budget of cache in bytes. */
+  private final long memoryBudget;
+
+  /** Maximal number of cached states. */
+  private final int maxStates;
+
+  /** Maps set of <i>NFA</i> states to number of cached state. */
+  private final Map<StateSet, Integer> stateIds = new HashMap<>();
+
+  /** Sets of <i>NFA</i> states, indexed by number of cached state. */
+  private final List<StateSet> stateSets = new ArrayList<>();
+
+  /** States of each cached state as list, indexed by number of cached state. */
+  private final List<List<State>> stateLists = new ArrayList<>();
+
+  /**
+   * Successor of each cached state for each symbol, stored at index
+   * <code>state * symbolCount + symbol</code>.
+   */
+  private int[] successors = new int[0];
+
+  /** Successor of each cached state for symbols which automaton does not know. */
+  private int emptyState = UNKNOWN;
+
+  /** Buffer for computing successors. */
+  private final long[] buffer;
+
+  /** Number of initial state in cache. */
+  private int initialState;
+
+  /** Number of current state in cache. */
+  private int currentState;
+
+  /** Number of times cache was flushed. */
+  private int flushCount;
+
+  /**
+   * Creates new caching engine for given <i>NFA</i> with default memory budget.
+   *
+   * @param nfa - automaton to simulate
+   */
+  public LazyDFA(final NFA nfa) {
+    this(nfa, DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * Creates new caching engine for given <i>NFA</i> whose cache will use at most approximately
+   * given number of bytes.
+   *
+   * @param nfa - automaton to simulate
+   * @param memoryBudget - memory budget of cache in bytes
+   * @throws IllegalArgumentException if memory budget cannot hold at least three states
+   */
+  public LazyDFA(final NFA nfa, final long memoryBudget) {
+    this(new BitsetNFA(nfa), memoryBudget);
+  }
+
+  /**
+   * Creates new caching engine on top of given bitset engine with default memory budget.
+   *
+   * @param nfa - engine which computes successors of sets of states
+   */
+  LazyDFA(final BitsetNFA nfa) {
+    this(nfa, DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * Creates new caching engine on top of given bitset engine. Only precomputed tables of given
+   * engine are used, so it can be shared between caching engines.
+   *
+   * @param nfa - engine which computes successors of sets of states
+   * @param memoryBudget - memory budget of cache in bytes
+   * @throws IllegalArgumentException if memory budget cannot hold at least three states
+   */
+  private LazyDFA(final BitsetNFA nfa, final long memoryBudget) {
+    this.nfa = nfa;
+    this.memoryBudget = memoryBudget;
+    symbolCount = this.nfa.symbolCount();
+    buffer = new long[this.nfa.words()];
+
+    long stateSize = 8L * this.nfa.words() + 4L * (symbolCount + 1) + STATE_OVERHEAD;
+    long states = memoryBudget / stateSize;
+    if (states < 3) {
+      throw new IllegalArgumentException("memory budget is too small");
+    }
+    maxStates = (int) Math.min(states, Integer.MAX_VALUE / Math.max(1, symbolCount));
+
+    initialState = addState(this.nfa.initialStateBits());
+    currentState = initialState;
+  }
+
+  @Override
+  public List<State> readSymbol(final Symbol symbol) {
+    int index = nfa.symbolIndex(symbol);
+    int next = index < 0 ? emptyState : successors[currentState * symbolCount + index];
+
+    if (next == UNKNOWN) {
+      nfa.step(stateSets.get(currentState).getBits(), index, buffer);
+      Integer id = stateIds.get(new StateSet(buffer));
+      if (id == null) {
+        if (stateSets.size() == maxStates) {
+          flush();
+        }
+        id = addState(buffer.clone());
+      }
+      next = id;
+      if (index < 0) {
+        emptyState = next;
+      } else {
+        successors[currentState * symbolCount + index] = next;
+      }
+    }
+
+    currentState = next;
+    return stateLists.get(currentState);
+  }
+
+  @Override
+  public List<List<State>> readSequence(final List<Symbol> sequence) {
+    List<List<State>> states = new ArrayList<>();
+    for (Symbol symbol : sequence) {
+      states.add(readSymbol(symbol));
+    }
+    return states;
+  }
+
+  @Override
+  public List<State> resetAutomaton() {
+    currentState = initialState;
+    return stateLists.get(currentState);
+  }
+
+  @Override
+  public List<State> getCurrentState() {
+    return stateLists.get(currentState);
+  }
+
+  @Override
+  public List<State> getInitialState() {
+    return stateLists.get(initialState);
+  }
+
+  /**
+   * Returns new engine for the same automaton. Returned engine starts with empty cache of the same
+   * memory budget.
+   *
+   * @return new engine for the same automaton
+   */
+  @Override
+  public LazyDFA copy() {
+    return new LazyDFA(nfa, memoryBudget);
+  }
+
+  /**
+   * Returns number of currently cached states.
+   *
+   * @return number of currently cached states
+   */
+  public int getCachedStateCount() {
+    return stateSets.size();
+  }
+
+  /**
+   * Returns number of times cache was flushed because it was full.
+   *
+   * @return number of times cache was flushed
+   */
+  public int getFlushCount() {
+    return flushCount;
+  }
+
+  /**
+   * Adds given set of <i>NFA</i> states to cache.
+   *
+   * @param bits - bitset of <i>NFA</i> states, which will not be modified afterwards
+   * @return number of added cached state
+   */
+  private int addState(final long[] bits) {
+    int id = stateSets.size();
+    StateSet stateSet = new StateSet(bits);
+    stateIds.put(stateSet, id);
+    stateSets.add(stateSet);
+    stateLists.add(Collections.unmodifiableList(nfa.toStates(bits)));
+
+    int size = (id + 1) * symbolCount;
+    if (size > successors.length) {
+      int capacity = (int) Math.min((long) maxStates * symbolCount, Math.max(size, 2L * size));
+      int oldLength = successors.length;
+      successors = Arrays.copyOf(successors, capacity);
+      Arrays.fill(successors, oldLength, capacity, UNKNOWN);
+    }
+    return id;
+  }
+
+  /**
+   * Empties cache. Afterwards cache contains only initial and current state.
+   */
+  private void flush() {
+    flushCount++;
+    StateSet initial = stateSets.get(initialState);
+    StateSet current = stateSets.get(currentState);
+
+    stateIds.clear();
+    stateSets.clear();
+    stateLists.clear();
+    Arrays.fill(successors, UNKNOWN);
+    emptyState = UNKNOWN;
+
+    initialState = addState(initial.getBits());
+    currentState = current.equals(initial) ? initialState : addState(current.getBits());
+  }
+
+}
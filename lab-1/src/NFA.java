@@ -1,18 +1,27 @@
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
- * Represents <i>Nondeterministic Finite Automaton</i>.
+ * Represents <i>Nondeterministic Finite Automaton</i>. Definition of automaton is shared between
+ * copies made with {@link #copy()} and it is copied only when one of them is modified, so
+ * modification of automaton never affects its copies. <br>
+ * Automaton can be modified with {@link #addState(State)}, {@link #addTransition(State, Symbol,
+ * State)} and {@link #removeTransition(State, Symbol, State)}. Epsilon-closures are kept up to
+ * date: only closures of states which reach changed epsilon-transition are repaired, and those are
+ * found by following epsilon-transitions backwards. Current state of automaton is not changed by
+ * modification, so automaton should be reset afterwards. Other engines built from this automaton
+ * do not see its later modifications.
  * 
  * @author Herman Zvonimir Dosilovic
  */
-public class NFA {
+public class NFA implements NFASimulator {
 
   /** States of this <i>NFA</i>. */
   private SortedSet<State> states;
@@ -26,17 +35,33 @@ public class NFA {
   /** Represents alphabet of this <i>NFA</i>. */
   private SortedSet<Symbol> alphabet;
 
-  /** Transition function of this <i>NFA</i>. */
+  /**
+   * Transition function of this <i>NFA</i>. Sets of states in it are never modified, but replaced
+   * when transition is added or removed.
+   */
   private Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction;
 
+  /** States from which each state is reached with single epsilon-transition. */
+  private Map<State, SortedSet<State>> reverseEpsilonTransitions;
+
   /** Initial state of this <i>NFA</i>. */
-  private State initialState;
+  private final State initialState;
 
   /** Represents <i>epsilon</i> symbol. */
-  private static final Symbol epsilonSymbol = new Symbol("");
+  private static final Symbol epsilonSymbol = Symbol.of("");
+
+  /**
+   * Contains epsilon closure of each state. Sets of states in it are never modified, but replaced
+   * when closure changes. In eager closure mode it contains closures of all states and it is
+   * shared between copies, otherwise each copy fills its own as closures are needed.
+   */
+  private Map<State, SortedSet<State>> epsilonClosure;
+
+  /** <code>true</code> if all epsilon-closures are computed at construction. */
+  private final boolean eagerEpsilonClosure;
 
-  /** Contains epsilon closure of each state. */
-  private Map<State, SortedSet<State>> epsilonClosure = new HashMap<>();
+  /** <code>true</code> if definition may be shared with another copy of this <i>NFA</i>. */
+  private boolean shared;
 
   /**
    * Creates new <i>Nondeterministic Finite Automaton</i> with defined 5-tuple.
@@ -50,14 +75,274 @@ public class NFA {
   public NFA(final SortedSet<State> states, final SortedSet<Symbol> alphabet,
       final Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction,
       final State initialState, final SortedSet<State> acceptableStates) {
-    this.states = states;
-    this.alphabet = alphabet;
-    this.transitionFunction = transitionFunction;
+    this(states, alphabet, transitionFunction, initialState, acceptableStates, false);
+  }
+
+  /**
+   * Creates new <i>Nondeterministic Finite Automaton</i> with defined 5-tuple. If
+   * <code>eagerEpsilonClosure</code> is <code>true</code>, epsilon-closures of all states are
+   * computed once at construction, otherwise each of them is computed when it is first needed.
+   * 
+   * @param states - states that <i>NFA</i> has
+   * @param alphabet - alphabet upon <i>NFA</i> is defined
+   * @param transitionFunction - transition function of <i>NFA</i> between states
+   * @param initialState - initial state of <i>NFA</i>
+   * @param acceptableStates - acceptable states of <i>NFA</i>
+   * @param eagerEpsilonClosure - <code>true</code> if epsilon-closures should be computed at
+   *        construction
+   */
+  public NFA(final SortedSet<State> states, final SortedSet<Symbol> alphabet,
+      final Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction,
+      final State initialState, final SortedSet<State> acceptableStates,
+      final boolean eagerEpsilonClosure) {
+    this.states = new TreeSet<>(states);
+    this.alphabet = new TreeSet<>(alphabet);
+    this.transitionFunction = copyOf(transitionFunction);
     this.initialState = initialState;
-    this.acceptableStates = acceptableStates;
+    this.acceptableStates = new TreeSet<>(acceptableStates);
+    this.eagerEpsilonClosure = eagerEpsilonClosure;
+
+    reverseEpsilonTransitions = new HashMap<>();
+    for (Map.Entry<Pair<State, Symbol>, SortedSet<State>> entry : this.transitionFunction
+        .entrySet()) {
+      if (entry.getKey().getSecond().equals(epsilonSymbol)) {
+        for (State state : entry.getValue()) {
+          addReverseEpsilonTransition(entry.getKey().getFirst(), state);
+        }
+      }
+    }
+
+    epsilonClosure = new HashMap<>();
+    if (eagerEpsilonClosure) {
+      EpsilonClosureTable table = new EpsilonClosureTable(this.states, this.transitionFunction);
+      for (State state : table.getStates()) {
+        epsilonClosure.put(state, table.get(state));
+      }
+    }
     currentState.addAll(epsilonClosure(this.initialState));
   }
 
+  /**
+   * Creates new <i>NFA</i> which shares definition with given <i>NFA</i>. Its current state is set
+   * to initial state.
+   * 
+   * @param nfa - automaton whose definition is shared
+   */
+  private NFA(final NFA nfa) {
+    this.states = nfa.states;
+    this.alphabet = nfa.alphabet;
+    this.transitionFunction = nfa.transitionFunction;
+    this.reverseEpsilonTransitions = nfa.reverseEpsilonTransitions;
+    this.initialState = nfa.initialState;
+    this.acceptableStates = nfa.acceptableStates;
+    this.eagerEpsilonClosure = nfa.eagerEpsilonClosure;
+    if (eagerEpsilonClosure) {
+      this.epsilonClosure = nfa.epsilonClosure;
+    } else {
+      this.epsilonClosure = new HashMap<>();
+    }
+    this.shared = true;
+    nfa.shared = true;
+    currentState.addAll(epsilonClosure(this.initialState));
+  }
+
+  /**
+   * Returns copy of given transition function.
+   * 
+   * @param transitionFunction - transition function to copy
+   * @return copy of given transition function
+   */
+  private static Map<Pair<State, Symbol>, SortedSet<State>> copyOf(
+      final Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction) {
+    Map<Pair<State, Symbol>, SortedSet<State>> copy = new HashMap<>();
+    for (Map.Entry<Pair<State, Symbol>, SortedSet<State>> entry : transitionFunction.entrySet()) {
+      Pair<State, Symbol> pair = entry.getKey();
+      copy.put(new Pair<>(pair.getFirst(), pair.getSecond()),
+          Collections.unmodifiableSortedSet(new TreeSet<>(entry.getValue())));
+    }
+    return copy;
+  }
+
+  @Override
+  public NFA copy() {
+    return new NFA(this);
+  }
+
+  /**
+   * Adds state to this automaton.
+   * 
+   * @param state - state to add
+   * @return <code>true</code> if state is added, <code>false</code> if automaton already has it
+   */
+  public boolean addState(final State state) {
+    if (states.contains(state)) {
+      return false;
+    }
+    detach();
+    states.add(state);
+    if (eagerEpsilonClosure && !epsilonClosure.containsKey(state)) {
+      epsilonClosure.put(state, computeEpsilonClosure(state));
+    }
+    return true;
+  }
+
+  /**
+   * Adds transition from one state to another over given symbol. States and symbol which
+   * automaton does not have are added too. If transition is epsilon-transition, closures of all
+   * states which reach state <code>from</code> are extended with closure of state <code>to</code>.
+   * 
+   * @param from - state from which transition goes
+   * @param symbol - symbol of transition
+   * @param to - state to which transition goes
+   * @return <code>true</code> if transition is added, <code>false</code> if automaton already has
+   *         it
+   */
+  public boolean addTransition(final State from, final Symbol symbol, final State to) {
+    Pair<State, Symbol> pair = new Pair<>(from, symbol);
+    SortedSet<State> targets = transitionFunction.get(pair);
+    if (targets != null && targets.contains(to)) {
+      return false;
+    }
+    addState(from);
+    addState(to);
+    detach();
+
+    SortedSet<State> reaching = null;
+    SortedSet<State> added = null;
+    if (symbol.equals(epsilonSymbol)) {
+      reaching = reachingStates(from);
+      added = epsilonClosure(to);
+    } else {
+      alphabet.add(symbol);
+    }
+
+    SortedSet<State> newTargets = targets == null ? new TreeSet<State>() : new TreeSet<>(targets);
+    newTargets.add(to);
+    transitionFunction.put(pair, Collections.unmodifiableSortedSet(newTargets));
+
+    if (reaching != null) {
+      addReverseEpsilonTransition(from, to);
+      for (State state : reaching) {
+        SortedSet<State> closure = epsilonClosure.get(state);
+        if (closure != null && !closure.containsAll(added)) {
+          SortedSet<State> newClosure = new TreeSet<>(closure);
+          newClosure.addAll(added);
+          epsilonClosure.put(state, Collections.unmodifiableSortedSet(newClosure));
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes transition from one state to another over given symbol. If transition is
+   * epsilon-transition, closures of all states which reached state <code>from</code> are computed
+   * again, or forgotten if closures are computed when needed.
+   * 
+   * @param from - state from which transition goes
+   * @param symbol - symbol of transition
+   * @param to - state to which transition goes
+   * @return <code>true</code> if transition is removed, <code>false</code> if automaton does not
+   *         have it
+   */
+  public boolean removeTransition(final State from, final Symbol symbol, final State to) {
+    Pair<State, Symbol> pair = new Pair<>(from, symbol);
+    SortedSet<State> targets = transitionFunction.get(pair);
+    if (targets == null || !targets.contains(to)) {
+      return false;
+    }
+    detach();
+
+    SortedSet<State> reaching = symbol.equals(epsilonSymbol) ? reachingStates(from) : null;
+
+    if (targets.size() == 1) {
+      transitionFunction.remove(pair);
+    } else {
+      SortedSet<State> newTargets = new TreeSet<>(targets);
+      newTargets.remove(to);
+      transitionFunction.put(pair, Collections.unmodifiableSortedSet(newTargets));
+    }
+
+    if (reaching != null) {
+      SortedSet<State> sources = reverseEpsilonTransitions.get(to);
+      sources.remove(from);
+      if (sources.isEmpty()) {
+        reverseEpsilonTransitions.remove(to);
+      }
+      for (State state : reaching) {
+        epsilonClosure.remove(state);
+      }
+      if (eagerEpsilonClosure) {
+        for (State state : reaching) {
+          epsilonClosure.put(state, computeEpsilonClosure(state));
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Makes sure that definition of this automaton is not shared with any copy, so it can be
+   * modified. Shared definition is copied.
+   */
+  private void detach() {
+    if (!shared) {
+      return;
+    }
+    states = new TreeSet<>(states);
+    alphabet = new TreeSet<>(alphabet);
+    acceptableStates = new TreeSet<>(acceptableStates);
+    transitionFunction = new HashMap<>(transitionFunction);
+    Map<State, SortedSet<State>> reverse = new HashMap<>();
+    for (Map.Entry<State, SortedSet<State>> entry : reverseEpsilonTransitions.entrySet()) {
+      reverse.put(entry.getKey(), new TreeSet<>(entry.getValue()));
+    }
+    reverseEpsilonTransitions = reverse;
+    if (eagerEpsilonClosure) {
+      epsilonClosure = new HashMap<>(epsilonClosure);
+    }
+    shared = false;
+  }
+
+  /**
+   * Records epsilon-transition from one state to another in reverse direction.
+   * 
+   * @param from - state from which transition goes
+   * @param to - state to which transition goes
+   */
+  private void addReverseEpsilonTransition(final State from, final State to) {
+    SortedSet<State> sources = reverseEpsilonTransitions.get(to);
+    if (sources == null) {
+      sources = new TreeSet<>();
+      reverseEpsilonTransitions.put(to, sources);
+    }
+    sources.add(from);
+  }
+
+  /**
+   * Returns all states whose epsilon-closure contains given state, including given state.
+   * 
+   * @param state - state which is reached
+   * @return all states from which given state is reached using only epsilon-transitions
+   */
+  private SortedSet<State> reachingStates(final State state) {
+    SortedSet<State> reaching = new TreeSet<>();
+    Queue<State> queue = new ArrayDeque<>();
+    reaching.add(state);
+    queue.add(state);
+    while (!queue.isEmpty()) {
+      SortedSet<State> sources = reverseEpsilonTransitions.get(queue.remove());
+      if (sources != null) {
+        for (State source : sources) {
+          if (reaching.add(source)) {
+            queue.add(source);
+          }
+        }
+      }
+    }
+    return reaching;
+  }
+
   /**
    * Returns epsilon-closure of given state. Epsilon-closure of given state <i>q</i> is defined as
    * set of states in which every state <i>p</i> can be visited using <b>only</b>
@@ -67,12 +352,25 @@ public class NFA {
    * @return epsilon-closure of given state
    */
   private SortedSet<State> epsilonClosure(final State state) {
-    if (this.epsilonClosure.containsKey(state)) {
-      return this.epsilonClosure.get(state);
+    SortedSet<State> epsilonClosure = this.epsilonClosure.get(state);
+    if (epsilonClosure == null) {
+      epsilonClosure = computeEpsilonClosure(state);
+      if (!eagerEpsilonClosure) { // in eager mode map may be shared, state is not in automaton
+        this.epsilonClosure.put(state, epsilonClosure);
+      }
     }
+    return epsilonClosure;
+  }
 
+  /**
+   * Computes epsilon-closure of given state by following epsilon-transitions.
+   * 
+   * @param state - state for which epsilon-closure will be calculated
+   * @return epsilon-closure of given state
+   */
+  private SortedSet<State> computeEpsilonClosure(final State state) {
     SortedSet<State> epsilonClosure = new TreeSet<>();
-    Queue<State> queue = new LinkedBlockingQueue<>();
+    Queue<State> queue = new ArrayDeque<>();
 
     queue.add(state);
     while (!queue.isEmpty()) {
@@ -88,9 +386,7 @@ public class NFA {
       }
     }
 
-    this.epsilonClosure.put(state, epsilonClosure);
-
-    return epsilonClosure;
+    return Collections.unmodifiableSortedSet(epsilonClosure);
   }
 
   /**
@@ -198,12 +494,14 @@ public class NFA {
   }
 
   /**
-   * Returns transition function of this automaton.
+   * Returns transition function of this automaton. Returned map cannot be modified, automaton is
+   * modified with {@link #addTransition(State, Symbol, State)} and
+   * {@link #removeTransition(State, Symbol, State)} instead.
    * 
    * @return transition function of this automaton
    */
   public Map<Pair<State, Symbol>, SortedSet<State>> getTransitionFunction() {
-    return transitionFunction;
+    return Collections.unmodifiableMap(transitionFunction);
   }
 
 }
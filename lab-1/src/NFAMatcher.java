@@ -0,0 +1,504 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Searches text for parts accepted by <i>Nondeterministic Finite Automaton</i>. Every character of
+ * text is read as symbol whose name is that character, so symbols of automaton whose name is not a
+ * single character are never matched. Text is read in a single pass, without going back, and
+ * offsets of matches are given in characters, where match <i>[start, end)</i> covers characters
+ * from <code>start</code> inclusive to <code>end</code> exclusive. Empty matches are not reported.
+ * <br>
+ * Automaton is simulated as a set of threads, where each thread is a state together with offset
+ * at which it started. When two threads reach the same state, only the one which started earlier
+ * is kept, since every match it can finish is at least as far left as any match of the other.
+ * <br>
+ * Matcher keeps track of its position in text, so one instance should not be used from different
+ * threads at the same time.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public class NFAMatcher {
+
+  /**
+   * Tells which matches are reported.
+   */
+  public enum Semantics {
+    /**
+     * For every offset at which some match ends, reports the leftmost match which ends there.
+     * Reported matches may overlap.
+     */
+    ALL_MATCHES,
+
+    /**
+     * Reports non-overlapping matches from left to right. Of all matches which do not overlap
+     * previously reported one, the leftmost is chosen and of those which start at the same offset,
+     * the longest.
+     */
+    LEFTMOST_LONGEST
+  }
+
+  /**
+   * Receives matches found in text.
+   */
+  public interface MatchHandler {
+
+    /**
+     * Called for every found match.
+     *
+     * @param start - offset of the first character of match
+     * @param end - offset after the last character of match
+     */
+    void onMatch(long start, long end);
+
+  }
+
+  /** Size of buffer in which text is read, in characters. */
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  /** Marks state which is not reached by any thread. */
+  private static final long NONE = -1;
+
+  /** Semantics of this matcher. */
+  private final Semantics semantics;
+
+  /** Number of states of automaton. */
+  private final int stateCount;
+
+  /** Number of symbols of automaton which are single characters. */
+  private final int symbolCount;
+
+  /** Number of symbol for each character below 128, or <code>-1</code> if there is no such. */
+  private final int[] asciiSymbols = new int[128];
+
+  /** Number of symbol for each other character. */
+  private final Map<Character, Integer> otherSymbols = new HashMap<>();
+
+  /**
+   * Epsilon-closure of transition states for each pair <i>(state, symbol)</i>, stored at index
+   * <code>state * symbolCount + symbol</code>. Element is <code>null</code> if transition is not
+   * defined.
+   */
+  private final int[][] transitions;
+
+  /** Epsilon-closure of initial state. */
+  private final int[] initialState;
+
+  /** Tells for each state whether it is acceptable. */
+  private final boolean[] acceptable;
+
+  /**
+   * Sets of threads in {@link Semantics#LEFTMOST_LONGEST} mode. Threads of each set started
+   * at or after the end of best match of previous set, and every set except the last one has
+   * found a match which is reported once all its threads die.
+   */
+  private final List<ThreadSet> threadSets = new ArrayList<>();
+
+  /** Sets of threads which are no longer used and can be reused. */
+  private final List<ThreadSet> freeThreadSets = new ArrayList<>();
+
+  /**
+   * Creates new matcher for given automaton.
+   *
+   * @param nfa - automaton which accepts parts of text that should be matched
+   * @param semantics - tells which matches are reported
+   */
+  public NFAMatcher(final NFA nfa, final Semantics semantics) {
+    this.semantics = semantics;
+
+    Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction = nfa.getTransitionFunction();
+    SortedSet<State> allStates = new TreeSet<>(nfa.getStates());
+    allStates.addAll(nfa.getInitialState());
+    for (Map.Entry<Pair<State, Symbol>, SortedSet<State>> entry : transitionFunction.entrySet()) {
+      allStates.add(entry.getKey().getFirst());
+      allStates.addAll(entry.getValue());
+    }
+
+    Map<State, Integer> stateIndex = new HashMap<>();
+    for (State state : allStates) {
+      stateIndex.put(state, stateIndex.size());
+    }
+    stateCount = stateIndex.size();
+
+    Arrays.fill(asciiSymbols, -1);
+    Map<Symbol, Integer> symbolIndex = new HashMap<>();
+    for (Pair<State, Symbol> pair : transitionFunction.keySet()) {
+      Symbol symbol = pair.getSecond();
+      if (symbol.getName().length() != 1 || symbolIndex.containsKey(symbol)) {
+        continue;
+      }
+      int index = symbolIndex.size();
+      symbolIndex.put(symbol, index);
+      char c = symbol.getName().charAt(0);
+      if (c < asciiSymbols.length) {
+        asciiSymbols[c] = index;
+      } else {
+        otherSymbols.put(c, index);
+      }
+    }
+    symbolCount = symbolIndex.size();
+
+    EpsilonClosureTable closures = new EpsilonClosureTable(allStates, transitionFunction);
+    transitions = new int[stateCount * symbolCount][];
+    for (Map.Entry<Pair<State, Symbol>, SortedSet<State>> entry : transitionFunction.entrySet()) {
+      Integer symbol = symbolIndex.get(entry.getKey().getSecond());
+      if (symbol == null) {
+        continue;
+      }
+      SortedSet<State> closure = new TreeSet<>();
+      for (State state : entry.getValue()) {
+        closure.addAll(closures.get(state));
+      }
+      int state = stateIndex.get(entry.getKey().getFirst());
+      transitions[state * symbolCount + symbol] = toIndices(closure, stateIndex);
+    }
+
+    initialState = toIndices(nfa.getInitialState(), stateIndex);
+    acceptable = new boolean[stateCount];
+    for (State state : nfa.getAcceptableStates()) {
+      Integer index = stateIndex.get(state);
+      if (index != null) {
+        acceptable[index] = true;
+      }
+    }
+  }
+
+  /**
+   * Returns numbers of given states.
+   *
+   * @param states - states whose numbers are returned
+   * @param stateIndex - maps state to its number
+   * @return numbers of given states
+   */
+  private static int[] toIndices(final Iterable<State> states,
+      final Map<State, Integer> stateIndex) {
+    List<Integer> indices = new ArrayList<>();
+    for (State state : states) {
+      indices.add(stateIndex.get(state));
+    }
+    int[] array = new int[indices.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = indices.get(i);
+    }
+    return array;
+  }
+
+  /**
+   * Returns semantics of this matcher.
+   *
+   * @return semantics of this matcher
+   */
+  public Semantics getSemantics() {
+    return semantics;
+  }
+
+  /**
+   * Searches given text and returns all found matches as pairs of start and end offset.
+   *
+   * @param text - text to search
+   * @return found matches in order in which they are found
+   */
+  public List<Pair<Long, Long>> search(final CharSequence text) {
+    final List<Pair<Long, Long>> matches = new ArrayList<>();
+    try {
+      search(new StringReader(text.toString()), new MatchHandler() {
+        @Override
+        public void onMatch(final long start, final long end) {
+          matches.add(new Pair<>(start, end));
+        }
+      });
+    } catch (IOException e) {
+      throw new IllegalStateException(e); // cannot happen when reading from string
+    }
+    return matches;
+  }
+
+  /**
+   * Reads text from given reader until its end and passes every found match to given handler.
+   * Matches are passed in order of their end offsets and, in {@link Semantics#LEFTMOST_LONGEST}
+   * mode, as soon as no longer match can replace them.
+   *
+   * @param reader - reader from which text is read
+   * @param handler - handler which receives found matches
+   * @throws IOException if I/O error occurs
+   */
+  public void search(final Reader reader, final MatchHandler handler) throws IOException {
+    if (semantics == Semantics.ALL_MATCHES) {
+      searchAll(reader, handler);
+    } else {
+      searchLeftmostLongest(reader, handler);
+    }
+  }
+
+  /**
+   * Searches text in {@link Semantics#ALL_MATCHES} mode.
+   *
+   * @param reader - reader from which text is read
+   * @param handler - handler which receives found matches
+   * @throws IOException if I/O error occurs
+   */
+  private void searchAll(final Reader reader, final MatchHandler handler) throws IOException {
+    ThreadSet threads = newThreadSet();
+    threads.start(0);
+
+    char[] buffer = new char[BUFFER_SIZE];
+    long position = 0;
+    int read;
+    while ((read = reader.read(buffer)) != -1) {
+      for (int i = 0; i < read; i++) {
+        threads.step(symbolIndex(buffer[i]));
+        position++;
+        long start = threads.acceptingStart();
+        if (start != NONE) {
+          handler.onMatch(start, position);
+        }
+        threads.start(position);
+      }
+    }
+
+    recycle(threads);
+  }
+
+  /**
+   * Searches text in {@link Semantics#LEFTMOST_LONGEST} mode.
+   *
+   * @param reader - reader from which text is read
+   * @param handler - handler which receives found matches
+   * @throws IOException if I/O error occurs
+   */
+  private void searchLeftmostLongest(final Reader reader, final MatchHandler handler)
+      throws IOException {
+    threadSets.add(newThreadSet());
+    threadSets.get(0).start(0);
+
+    char[] buffer = new char[BUFFER_SIZE];
+    long position = 0;
+    int read;
+    while ((read = reader.read(buffer)) != -1) {
+      for (int i = 0; i < read; i++) {
+        int symbol = symbolIndex(buffer[i]);
+        for (ThreadSet threads : threadSets) {
+          threads.step(symbol);
+        }
+        position++;
+
+        for (int g = 0; g < threadSets.size(); g++) {
+          ThreadSet threads = threadSets.get(g);
+          long start = threads.acceptingStart();
+          if (start != NONE) {
+            threads.setMatch(start, position);
+            while (threadSets.size() > g + 1) {
+              recycle(threadSets.remove(threadSets.size() - 1));
+            }
+            threadSets.add(newThreadSet());
+            break;
+          }
+        }
+        threadSets.get(threadSets.size() - 1).start(position);
+
+        while (threadSets.size() > 1 && threadSets.get(0).isDead()) {
+          ThreadSet threads = threadSets.remove(0);
+          handler.onMatch(threads.matchStart, threads.matchEnd);
+          recycle(threads);
+        }
+      }
+    }
+
+    for (ThreadSet threads : threadSets) {
+      if (threads.matchStart != NONE) {
+        handler.onMatch(threads.matchStart, threads.matchEnd);
+      }
+      recycle(threads);
+    }
+    threadSets.clear();
+  }
+
+  /**
+   * Returns number of symbol whose name is given character.
+   *
+   * @param c - character of text
+   * @return number of symbol, or <code>-1</code> if automaton has no such symbol
+   */
+  private int symbolIndex(final char c) {
+    if (c < asciiSymbols.length) {
+      return asciiSymbols[c];
+    }
+    Integer index = otherSymbols.get(c);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Returns empty set of threads, reusing one of previously used sets if possible.
+   *
+   * @return empty set of threads
+   */
+  private ThreadSet newThreadSet() {
+    if (freeThreadSets.isEmpty()) {
+      return new ThreadSet();
+    }
+    return freeThreadSets.remove(freeThreadSets.size() - 1);
+  }
+
+  /**
+   * Empties given set of threads and keeps it for reuse.
+   *
+   * @param threads - set of threads which is no longer used
+   */
+  private void recycle(final ThreadSet threads) {
+    threads.clear();
+    freeThreadSets.add(threads);
+  }
+
+  /**
+   * Set of threads of automaton, with at most one thread in each state, together with best match
+   * found by them.
+   */
+  private final class ThreadSet {
+
+    /** Offset at which thread in each state started, or {@link #NONE}. */
+    private long[] starts = new long[stateCount];
+
+    /** States of current threads. */
+    private int[] active = new int[stateCount];
+
+    /** Number of current threads. */
+    private int size;
+
+    /** Start offsets for threads of next step. */
+    private long[] nextStarts = new long[stateCount];
+
+    /** States of threads of next step. */
+    private int[] nextActive = new int[stateCount];
+
+    /** Start offset of best match, or {@link #NONE} if no match is found. */
+    private long matchStart = NONE;
+
+    /** End offset of best match. */
+    private long matchEnd;
+
+    /**
+     * Creates empty set of threads.
+     */
+    private ThreadSet() {
+      Arrays.fill(starts, NONE);
+      Arrays.fill(nextStarts, NONE);
+    }
+
+    /**
+     * Starts new threads in epsilon-closure of initial state at given offset.
+     *
+     * @param offset - offset at which threads start
+     */
+    private void start(final long offset) {
+      for (int state : initialState) {
+        if (starts[state] == NONE) {
+          starts[state] = offset;
+          active[size++] = state;
+        }
+      }
+    }
+
+    /**
+     * Moves every thread over symbol with given number. Threads which have no transition die.
+     *
+     * @param symbol - number of symbol, or <code>-1</code> if symbol is unknown
+     */
+    private void step(final int symbol) {
+      int nextSize = 0;
+      for (int i = 0; i < size; i++) {
+        int state = active[i];
+        long start = starts[state];
+        starts[state] = NONE;
+        int[] targets = symbol < 0 ? null : transitions[state * symbolCount + symbol];
+        if (targets == null) {
+          continue;
+        }
+        for (int target : targets) {
+          long current = nextStarts[target];
+          if (current == NONE) {
+            nextStarts[target] = start;
+            nextActive[nextSize++] = target;
+          } else if (start < current) {
+            nextStarts[target] = start;
+          }
+        }
+      }
+
+      long[] swapStarts = starts;
+      starts = nextStarts;
+      nextStarts = swapStarts;
+      int[] swapActive = active;
+      active = nextActive;
+      nextActive = swapActive;
+      size = nextSize;
+    }
+
+    /**
+     * Returns the earliest start offset of threads in acceptable states.
+     *
+     * @return the earliest start offset of threads in acceptable states, or {@link #NONE} if no
+     *         thread is in acceptable state
+     */
+    private long acceptingStart() {
+      long best = NONE;
+      for (int i = 0; i < size; i++) {
+        int state = active[i];
+        if (acceptable[state] && (best == NONE || starts[state] < best)) {
+          best = starts[state];
+        }
+      }
+      return best;
+    }
+
+    /**
+     * Sets best match of this set and stops threads which started after it, since they cannot
+     * find better match nor one which does not overlap it.
+     *
+     * @param start - start offset of match
+     * @param end - end offset of match
+     */
+    private void setMatch(final long start, final long end) {
+      matchStart = start;
+      matchEnd = end;
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        int state = active[i];
+        if (starts[state] > start) {
+          starts[state] = NONE;
+        } else {
+          active[kept++] = state;
+        }
+      }
+      size = kept;
+    }
+
+    /**
+     * Returns <code>true</code> if this set has no threads.
+     *
+     * @return <code>true</code> if this set has no threads
+     */
+    private boolean isDead() {
+      return size == 0;
+    }
+
+    /**
+     * Stops all threads and forgets found match.
+     */
+    private void clear() {
+      for (int i = 0; i < size; i++) {
+        starts[active[i]] = NONE;
+      }
+      size = 0;
+      matchStart = NONE;
+    }
+
+  }
+
+}
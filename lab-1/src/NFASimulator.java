@@ -0,0 +1,58 @@
+import java.util.List;
+
+/**
+ * Represents simulation engine of <i>Nondeterministic Finite Automaton</i>. Every engine keeps
+ * track of states in which automaton currently is and returns states in alphabetical order.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public interface NFASimulator {
+
+  /**
+   * Returns states in which automaton will be after it reads given symbol.
+   *
+   * @param symbol - symbol for automaton to read
+   * @return states in which automaton will be after it reads given symbol
+   */
+  List<State> readSymbol(Symbol symbol);
+
+  /**
+   * Returns states in which automaton will be after it reads each symbol of given sequence.
+   *
+   * @param sequence - sequence of symbols for automaton to read
+   * @return states in which automaton will be after it reads each symbol of given sequence
+   */
+  List<List<State>> readSequence(List<Symbol> sequence);
+
+  /**
+   * Resets automaton. Sets its current state to epsilon-closure of initial state.
+   *
+   * @return current state of automaton after reset
+   */
+  List<State> resetAutomaton();
+
+  /**
+   * Returns current state of automaton.
+   *
+   * @return current state of automaton
+   */
+  List<State> getCurrentState();
+
+  /**
+   * Returns epsilon-closure of initial state of automaton.
+   *
+   * @return epsilon-closure of initial state of automaton
+   */
+  List<State> getInitialState();
+
+  /**
+   * Returns new engine which simulates the same automaton and shares its definition with this
+   * engine, but keeps track of its own current state. Current state of returned engine is set to
+   * epsilon-closure of initial state. Engines made this way can be used from different threads at
+   * the same time.
+   *
+   * @return new engine for the same automaton
+   */
+  NFASimulator copy();
+
+}
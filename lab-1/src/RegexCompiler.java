@@ -0,0 +1,336 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Compiles regular expressions into <i>Nondeterministic Finite Automaton</i> with epsilon-moves
+ * using <i>Thompson's</i> construction. Every character of expression is a symbol of automaton.
+ * Supported are:
+ * <ul>
+ * <li>concatenation <code>ab</code></li>
+ * <li>alternation <code>a|b</code>, whose alternatives may be empty</li>
+ * <li>repetition <code>a*</code>, <code>a+</code> and <code>a?</code></li>
+ * <li>grouping <code>(ab)</code></li>
+ * <li>character classes <code>[abc]</code> with ranges <code>[a-z]</code></li>
+ * <li>escaping of special character with <code>\</code>, as in <code>\*</code></li>
+ * </ul>
+ * Expression is read once from left to right, without building syntax tree, and every construct
+ * adds constant number of states and transitions, so size of automaton is linear in length of
+ * expression. Only character class adds one transition for each character it contains. States are
+ * named with consecutive numbers written in base 36.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class RegexCompiler {
+
+  /** Radix in which state numbers are written. */
+  private static final int STATE_NAME_RADIX = Character.MAX_RADIX;
+
+  /** Represents <i>epsilon</i> symbol. */
+  private static final Symbol epsilonSymbol = Symbol.of("");
+
+  /** Expression which is compiled. */
+  private final String pattern;
+
+  /** Position of next character of expression. */
+  private int position;
+
+  /** States created so far. */
+  private final List<State> states = new ArrayList<>();
+
+  /** Symbols used so far. */
+  private final SortedSet<Symbol> alphabet = new TreeSet<>();
+
+  /** Transitions created so far. */
+  private final Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction = new HashMap<>();
+
+  /** Symbol of each character used so far. */
+  private final Map<Character, Symbol> symbols = new HashMap<>();
+
+  /**
+   * Creates compiler of given expression.
+   *
+   * @param pattern - expression to compile
+   */
+  private RegexCompiler(final String pattern) {
+    this.pattern = pattern;
+  }
+
+  /**
+   * Returns automaton which accepts exactly sequences of characters matched by given regular
+   * expression.
+   *
+   * @param pattern - regular expression
+   * @return automaton equivalent to given regular expression
+   * @throws IllegalArgumentException if expression is not valid
+   */
+  public static NFA compile(final String pattern) {
+    return compile(pattern, false);
+  }
+
+  /**
+   * Returns automaton which accepts exactly sequences of characters matched by given regular
+   * expression.
+   *
+   * @param pattern - regular expression
+   * @param eagerEpsilonClosure - <code>true</code> if epsilon-closures of automaton should be
+   *        computed at construction
+   * @return automaton equivalent to given regular expression
+   * @throws IllegalArgumentException if expression is not valid
+   */
+  public static NFA compile(final String pattern, final boolean eagerEpsilonClosure) {
+    RegexCompiler compiler = new RegexCompiler(pattern);
+    State[] fragment = compiler.parseAlternation();
+    if (compiler.position < pattern.length()) {
+      throw compiler.error("unexpected ')'");
+    }
+
+    SortedSet<State> acceptableStates = new TreeSet<>();
+    acceptableStates.add(fragment[1]);
+    return new NFA(new TreeSet<>(compiler.states), compiler.alphabet,
+        compiler.transitionFunction, fragment[0], acceptableStates, eagerEpsilonClosure);
+  }
+
+  /**
+   * Parses alternatives separated with <code>|</code> until the end of expression or closing
+   * parenthesis.
+   *
+   * @return initial and acceptable state of fragment
+   */
+  private State[] parseAlternation() {
+    State[] first = parseConcatenation();
+    if (!accept('|')) {
+      return first;
+    }
+
+    State start = newState();
+    State end = newState();
+    addTransition(start, epsilonSymbol, first[0]);
+    addTransition(first[1], epsilonSymbol, end);
+    do {
+      State[] alternative = parseConcatenation();
+      addTransition(start, epsilonSymbol, alternative[0]);
+      addTransition(alternative[1], epsilonSymbol, end);
+    } while (accept('|'));
+    return new State[] {start, end};
+  }
+
+  /**
+   * Parses sequence of repeated atoms until <code>|</code>, closing parenthesis or the end of
+   * expression. Empty sequence matches empty word.
+   *
+   * @return initial and acceptable state of fragment
+   */
+  private State[] parseConcatenation() {
+    State start = newState();
+    State end = start;
+    while (position < pattern.length() && peek() != '|' && peek() != ')') {
+      State[] repetition = parseRepetition();
+      addTransition(end, epsilonSymbol, repetition[0]);
+      end = repetition[1];
+    }
+    return new State[] {start, end};
+  }
+
+  /**
+   * Parses atom followed by any number of <code>*</code>, <code>+</code> and <code>?</code>.
+   *
+   * @return initial and acceptable state of fragment
+   */
+  private State[] parseRepetition() {
+    State[] fragment = parseAtom();
+    while (position < pattern.length()) {
+      char c = peek();
+      if (c != '*' && c != '+' && c != '?') {
+        break;
+      }
+      position++;
+
+      State start = newState();
+      State end = newState();
+      addTransition(start, epsilonSymbol, fragment[0]);
+      addTransition(fragment[1], epsilonSymbol, end);
+      if (c != '+') {
+        addTransition(start, epsilonSymbol, end);
+      }
+      if (c != '?') {
+        addTransition(fragment[1], epsilonSymbol, fragment[0]);
+      }
+      fragment = new State[] {start, end};
+    }
+    return fragment;
+  }
+
+  /**
+   * Parses single character, character class or group in parentheses.
+   *
+   * @return initial and acceptable state of fragment
+   */
+  private State[] parseAtom() {
+    char c = pattern.charAt(position++);
+    if (c == '(') {
+      State[] fragment = parseAlternation();
+      if (!accept(')')) {
+        throw error("missing ')'");
+      }
+      return fragment;
+    }
+    if (c == '[') {
+      return parseClass();
+    }
+    if (c == '*' || c == '+' || c == '?') {
+      position--;
+      throw error("nothing to repeat");
+    }
+    if (c == ']') {
+      position--;
+      throw error("unexpected ']'");
+    }
+    if (c == '\\') {
+      c = parseEscaped();
+    }
+
+    State start = newState();
+    State end = newState();
+    addTransition(start, symbol(c), end);
+    return new State[] {start, end};
+  }
+
+  /**
+   * Parses character class after opening bracket, up to and including closing bracket.
+   *
+   * @return initial and acceptable state of fragment
+   */
+  private State[] parseClass() {
+    State start = newState();
+    State end = newState();
+    boolean empty = true;
+    while (!accept(']')) {
+      if (position == pattern.length()) {
+        throw error("missing ']'");
+      }
+      char first = parseClassCharacter();
+      char last = first;
+      if (position + 1 < pattern.length() && peek() == '-'
+          && pattern.charAt(position + 1) != ']') {
+        position++;
+        last = parseClassCharacter();
+        if (last < first) {
+          throw error("invalid range " + first + "-" + last);
+        }
+      }
+      for (char c = first; c <= last && c >= first; c++) {
+        addTransition(start, symbol(c), end);
+      }
+      empty = false;
+    }
+    if (empty) {
+      throw error("empty character class");
+    }
+    return new State[] {start, end};
+  }
+
+  /**
+   * Parses single, possibly escaped, character of character class.
+   *
+   * @return parsed character
+   */
+  private char parseClassCharacter() {
+    char c = pattern.charAt(position++);
+    return c == '\\' ? parseEscaped() : c;
+  }
+
+  /**
+   * Parses character after <code>\</code>.
+   *
+   * @return escaped character
+   */
+  private char parseEscaped() {
+    if (position == pattern.length()) {
+      throw error("trailing '\\'");
+    }
+    return pattern.charAt(position++);
+  }
+
+  /**
+   * Returns next character of expression without consuming it.
+   *
+   * @return next character of expression
+   */
+  private char peek() {
+    return pattern.charAt(position);
+  }
+
+  /**
+   * Consumes next character of expression if it is equal to given one.
+   *
+   * @param c - expected character
+   * @return <code>true</code> if character is consumed
+   */
+  private boolean accept(final char c) {
+    if (position < pattern.length() && pattern.charAt(position) == c) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns new state named with next number.
+   *
+   * @return new state
+   */
+  private State newState() {
+    State state = State.of(Integer.toString(states.size(), STATE_NAME_RADIX));
+    states.add(state);
+    return state;
+  }
+
+  /**
+   * Returns symbol of given character.
+   *
+   * @param c - character
+   * @return symbol of given character
+   */
+  private Symbol symbol(final char c) {
+    Symbol symbol = symbols.get(c);
+    if (symbol == null) {
+      symbol = Symbol.of(String.valueOf(c));
+      symbols.put(c, symbol);
+      alphabet.add(symbol);
+    }
+    return symbol;
+  }
+
+  /**
+   * Adds transition from one state to another over given symbol.
+   *
+   * @param from - state from which transition goes
+   * @param symbol - symbol of transition
+   * @param to - state to which transition goes
+   */
+  private void addTransition(final State from, final Symbol symbol, final State to) {
+    Pair<State, Symbol> pair = new Pair<>(from, symbol);
+    SortedSet<State> targets = transitionFunction.get(pair);
+    if (targets == null) {
+      targets = new TreeSet<>();
+      transitionFunction.put(pair, targets);
+    }
+    targets.add(to);
+  }
+
+  /**
+   * Returns exception which describes error at current position of expression.
+   *
+   * @param message - description of error
+   * @return exception which describes error
+   */
+  private IllegalArgumentException error(final String message) {
+    return new IllegalArgumentException(
+        message + " at index " + position + " of regular expression: " + pattern);
+  }
+
+}
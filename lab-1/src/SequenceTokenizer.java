@@ -0,0 +1,331 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Reads input sequences symbol by symbol from a channel. Symbols in sequence are separated with
+ * ',' (comma), sequences are separated with '|' and input ends at the end of line or at the end of
+ * channel. Input is read through buffer of fixed size, so memory used does not depend on length of
+ * input. Only symbols given at construction are returned, every other name is read as
+ * {@link Symbol#UNKNOWN}, so memory used does not depend on number of distinct names either. <br>
+ * Input is split as with {@link String#split(String)}, first by '|' and then each sequence by ',':
+ * empty symbols at the end of sequence and empty sequences at the end of input are ignored, but
+ * empty input is one sequence with one empty symbol. Empty symbols and sequences are held back
+ * only as counts until it is known that they are not at the end.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class SequenceTokenizer {
+
+  /** Returned by {@link #next()} when symbol is read. */
+  public static final int SYMBOL = 0;
+
+  /** Returned by {@link #next()} when the end of sequence is reached. */
+  public static final int END_OF_SEQUENCE = 1;
+
+  /** Returned by {@link #next()} when the end of input is reached. */
+  public static final int END_OF_INPUT = 2;
+
+  /** Default size of input buffer in bytes. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** Initial capacity of symbol table. Must be power of two. */
+  private static final int CACHE_CAPACITY = 64;
+
+  /** Channel from which input is read. */
+  private final ReadableByteChannel channel;
+
+  /** Buffer with bytes read from channel. */
+  private final ByteBuffer buffer;
+
+  /** Bytes of symbol which is being read. */
+  private byte[] name = new byte[64];
+
+  /** Names of known symbols in UTF-8, in open addressing table. */
+  private byte[][] cachedNames = new byte[CACHE_CAPACITY][];
+
+  /** Known symbols, in open addressing table. */
+  private Symbol[] cachedSymbols = new Symbol[CACHE_CAPACITY];
+
+  /** Number of known symbols. */
+  private int cacheSize;
+
+  /** Empty symbol, which is returned for empty name. */
+  private static final Symbol EMPTY_SYMBOL = Symbol.of("");
+
+  /** Last read symbol. */
+  private Symbol symbol;
+
+  /** Symbol which is returned after held back empty symbols, or <code>null</code>. */
+  private Symbol nextSymbol;
+
+  /** Number of empty symbols of current sequence which are known not to be at its end. */
+  private int emptySymbols;
+
+  /** Number of empty symbols of current sequence which may be at its end. */
+  private int heldSymbols;
+
+  /** Number of empty sequences which are known not to be at the end of input. */
+  private int emptySequences;
+
+  /** Number of empty sequences which may be at the end of input. */
+  private int heldSequences;
+
+  /** <code>true</code> if symbol of first of {@link #emptySequences} is already returned. */
+  private boolean emptySequenceStarted;
+
+  /** <code>true</code> if current sequence has any symbol or ',' in input. */
+  private boolean sequenceStarted;
+
+  /** <code>true</code> if '|' was read. */
+  private boolean sequenceSeparatorRead;
+
+  /** <code>true</code> if the end of sequence is reached after last read symbol. */
+  private boolean endOfSequence;
+
+  /** <code>true</code> if the end of input is reached. */
+  private boolean endOfInput;
+
+  /**
+   * Creates tokenizer which reads input from given channel. Names of given symbols are read as
+   * those symbols and every other non-empty name is read as {@link Symbol#UNKNOWN}.
+   *
+   * @param channel - channel from which input is read
+   * @param symbols - symbols known to automaton
+   */
+  public SequenceTokenizer(final ReadableByteChannel channel, final Collection<Symbol> symbols) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    buffer.flip();
+    for (Symbol known : symbols) {
+      byte[] bytes = known.getName().getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > 0 && symbol(bytes, bytes.length) == Symbol.UNKNOWN) {
+        add(bytes, known);
+      }
+    }
+  }
+
+  /**
+   * Reads next token of input. If symbol is read, it is available with {@link #getSymbol()}.
+   * Every sequence ends with {@link #END_OF_SEQUENCE}, even the last one, and after it
+   * {@link #END_OF_INPUT} is returned.
+   *
+   * @return type of read token: {@link #SYMBOL}, {@link #END_OF_SEQUENCE} or {@link #END_OF_INPUT}
+   * @throws IOException if I/O error occurs
+   */
+  public int next() throws IOException {
+    while (true) {
+      if (emptySequences > 0) {
+        if (!emptySequenceStarted) {
+          emptySequenceStarted = true;
+          symbol = EMPTY_SYMBOL;
+          return SYMBOL;
+        }
+        emptySequenceStarted = false;
+        emptySequences--;
+        return END_OF_SEQUENCE;
+      }
+      if (emptySymbols > 0) {
+        emptySymbols--;
+        symbol = EMPTY_SYMBOL;
+        return SYMBOL;
+      }
+      if (nextSymbol != null) {
+        symbol = nextSymbol;
+        nextSymbol = null;
+        return SYMBOL;
+      }
+      if (endOfSequence) {
+        endOfSequence = false;
+        return END_OF_SEQUENCE;
+      }
+      if (endOfInput) {
+        return END_OF_INPUT;
+      }
+      readName();
+    }
+  }
+
+  /**
+   * Reads name of one symbol and separator after it, and decides which tokens follow from them.
+   * Held back empty symbols and sequences are released when non-empty symbol or sequence follows
+   * them, and are dropped at the end of sequence or input.
+   *
+   * @throws IOException if I/O error occurs
+   */
+  private void readName() throws IOException {
+    int length = 0;
+    byte separator;
+    while (true) {
+      if (!buffer.hasRemaining() && !fill()) {
+        separator = '\n';
+        break;
+      }
+      byte b = buffer.get();
+      if (b == ',' || b == '|' || b == '\n') {
+        separator = b;
+        break;
+      } else if (b != '\r') {
+        if (length == name.length) {
+          name = Arrays.copyOf(name, 2 * length);
+        }
+        name[length++] = b;
+      }
+    }
+
+    if (length > 0 || separator == ',') {
+      sequenceStarted = true;
+      emptySequences += heldSequences;
+      heldSequences = 0;
+    }
+    if (length > 0) {
+      emptySymbols += heldSymbols;
+      heldSymbols = 0;
+      nextSymbol = symbol(name, length);
+    } else if (separator == ',') {
+      heldSymbols++;
+    }
+    if (separator == ',') {
+      return;
+    }
+
+    heldSymbols = 0;
+    if (sequenceStarted) {
+      endOfSequence = true;
+    } else if (separator == '\n' && !sequenceSeparatorRead) {
+      emptySequences++;
+    } else {
+      heldSequences++;
+    }
+    sequenceStarted = false;
+    if (separator == '|') {
+      sequenceSeparatorRead = true;
+    } else {
+      heldSequences = 0;
+      endOfInput = true;
+    }
+  }
+
+  /**
+   * Returns last read symbol.
+   *
+   * @return last read symbol
+   */
+  public Symbol getSymbol() {
+    return symbol;
+  }
+
+  /**
+   * Reads more bytes from channel into buffer.
+   *
+   * @return <code>false</code> if the end of channel is reached, <code>true</code> otherwise
+   * @throws IOException if I/O error occurs
+   */
+  private boolean fill() throws IOException {
+    buffer.clear();
+    int read;
+    do {
+      read = channel.read(buffer);
+    } while (read == 0);
+    buffer.flip();
+    return read > 0;
+  }
+
+  /**
+   * Returns known symbol with name given in UTF-8 bytes, or {@link Symbol#UNKNOWN} if no known
+   * symbol has that name.
+   *
+   * @param bytes - bytes of name
+   * @param length - number of bytes of name
+   * @return symbol with given name, or {@link Symbol#UNKNOWN}
+   */
+  private Symbol symbol(final byte[] bytes, final int length) {
+    int mask = cachedNames.length - 1;
+    int index = hash(bytes, length) & mask;
+    while (cachedNames[index] != null) {
+      byte[] cachedName = cachedNames[index];
+      if (cachedName.length == length && equals(cachedName, bytes, length)) {
+        return cachedSymbols[index];
+      }
+      index = (index + 1) & mask;
+    }
+    return Symbol.UNKNOWN;
+  }
+
+  /**
+   * Adds given symbol with given name to table of known symbols. Name must not be in table yet.
+   *
+   * @param name - name of symbol in UTF-8
+   * @param symbol - symbol to add
+   */
+  private void add(final byte[] name, final Symbol symbol) {
+    int mask = cachedNames.length - 1;
+    int index = hash(name, name.length) & mask;
+    while (cachedNames[index] != null) {
+      index = (index + 1) & mask;
+    }
+    cachedNames[index] = name;
+    cachedSymbols[index] = symbol;
+    if (++cacheSize * 2 > cachedNames.length) {
+      growCache();
+    }
+  }
+
+  /**
+   * Returns hash of name given in UTF-8 bytes.
+   *
+   * @param bytes - bytes of name
+   * @param length - number of bytes of name
+   * @return hash of name
+   */
+  private static int hash(final byte[] bytes, final int length) {
+    int hash = 1;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Doubles capacity of table of known symbols.
+   */
+  private void growCache() {
+    byte[][] oldNames = cachedNames;
+    Symbol[] oldSymbols = cachedSymbols;
+    cachedNames = new byte[2 * oldNames.length][];
+    cachedSymbols = new Symbol[2 * oldSymbols.length];
+    int mask = cachedNames.length - 1;
+    for (int i = 0; i < oldNames.length; i++) {
+      if (oldNames[i] == null) {
+        continue;
+      }
+      int index = hash(oldNames[i], oldNames[i].length) & mask;
+      while (cachedNames[index] != null) {
+        index = (index + 1) & mask;
+      }
+      cachedNames[index] = oldNames[i];
+      cachedSymbols[index] = oldSymbols[i];
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if first <code>length</code> bytes of given arrays are equal.
+   *
+   * @param first - first array
+   * @param second - second array
+   * @param length - number of bytes to compare
+   * @return <code>true</code> if first <code>length</code> bytes of given arrays are equal
+   */
+  private static boolean equals(final byte[] first, final byte[] second, final int length) {
+    for (int i = 0; i < length; i++) {
+      if (first[i] != second[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -1,12 +1,25 @@
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Main class of lab-1.
@@ -15,70 +28,202 @@ import java.util.TreeSet;
  */
 public final class SimEnka {
 
+  /** Command line argument which turns on parallel simulation of sequences. */
+  private static final String PARALLEL_ARGUMENT = "--parallel";
+
+  /** Number of sequences whose traces are kept in memory at once in parallel mode. */
+  private static final int BATCH_SIZE = 4096;
+
+  /** Size of buffer used when searching for the end of first line. */
+  private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
   /**
-   * Program entry. Command line arguments are not in use.
+   * Program entry. If argument <code>--parallel</code> is given, input sequences are simulated
+   * concurrently, but output is still written in order of input sequences. <br>
+   * If <i>stdin</i> is a regular file, first line of input is not loaded into memory. Definition of
+   * automaton is read first and sequences are then read symbol by symbol while output is written.
    * 
    * @param args - command line arguments
    * @throws IOException if I/O errors occurs
    */
   public static void main(final String[] args) throws IOException {
-    BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+    FileChannel channel = new FileInputStream(FileDescriptor.in).getChannel();
+    long inputStart = findPosition(channel);
+    long definitionStart = inputStart < 0 ? -1 : findSecondLine(channel);
+
+    BufferedReader reader;
+    ReadableByteChannel sequences;
+    if (definitionStart >= 0) {
+      channel.position(definitionStart);
+      reader = new BufferedReader(Channels.newReader(channel, "UTF-8"));
+      sequences = null;
+    } else { // stdin cannot be repositioned, so first line has to be kept in memory
+      reader = new BufferedReader(new InputStreamReader(System.in));
+      byte[] firstLine = reader.readLine().getBytes(StandardCharsets.UTF_8);
+      sequences = Channels.newChannel(new ByteArrayInputStream(firstLine));
+    }
 
-    List<List<Symbol>> sequences = readSequences(reader);
     SortedSet<State> states = readStates(reader);
     SortedSet<Symbol> alphabet = readAlphabet(reader);
     SortedSet<State> acceptableStates = readAcceptableStates(reader);
     State initalState = readInitialState(reader);
     Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction = readTransitionFunction(reader);
 
-    NFA nfa = new NFA(states, alphabet, transitionFunction, initalState, acceptableStates);
+    if (sequences == null) {
+      channel.position(inputStart);
+      sequences = channel;
+    }
+    // names which automaton does not know are read as one unknown symbol, so they are not kept
+    SortedSet<Symbol> symbols = new TreeSet<>(alphabet);
+    for (Pair<State, Symbol> pair : transitionFunction.keySet()) {
+      symbols.add(pair.getSecond());
+    }
+    SequenceTokenizer tokenizer = new SequenceTokenizer(sequences, symbols);
 
-    for (List<Symbol> sequence : sequences) {
-      List<List<State>> allNkaStates = nfa.readSequence(sequence);
-      allNkaStates.add(0, nfa.getInitialState());
-      nfa.resetAutomaton();
+    // engine computes its own epsilon-closures, so NFA does not compute them eagerly
+    NFASimulator nfa = BitParallelNFA.create(
+        new NFA(states, alphabet, transitionFunction, initalState, acceptableStates));
 
-      int statesCount = 1;
-      for (List<State> nkaStates : allNkaStates) {
-        if (nkaStates.isEmpty()) {
-          System.out.print("#");
-        } else {
-          int stateCount = 1;
-          for (State state : nkaStates) {
-            System.out.print(state);
-            if (stateCount++ != nkaStates.size())
-              System.out.print(",");
-          }
-        }
+    StateTraceWriter out = new StateTraceWriter(new FileOutputStream(FileDescriptor.out));
+    if (Arrays.asList(args).contains(PARALLEL_ARGUMENT)) {
+      simulateInParallel(nfa, tokenizer, out);
+    } else {
+      simulate(nfa, tokenizer, out);
+    }
+    out.flush();
+  }
 
-        if (statesCount++ != allNkaStates.size())
-          System.out.print("|");
-      }
+  /**
+   * Returns current position of given channel, or <code>-1</code> if channel cannot be
+   * repositioned. <i>Stdin</i> may be a file of which some bytes were already read by another
+   * program, so input starts at current position and not at the start of file.
+   * 
+   * @param channel - channel of <i>stdin</i>
+   * @return current position of channel, or <code>-1</code> if channel cannot be repositioned
+   */
+  private static long findPosition(final FileChannel channel) {
+    try {
+      long position = channel.position();
+      channel.position(position);
+      return position;
+    } catch (IOException e) {
+      return -1;
+    }
+  }
 
-      System.out.println();
+  /**
+   * Returns position at which second line of given channel starts, reading from its current
+   * position.
+   * 
+   * @param channel - channel of <i>stdin</i>
+   * @return position at which second line starts
+   * @throws IOException if I/O errors occurs
+   */
+  private static long findSecondLine(final FileChannel channel) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(SCAN_BUFFER_SIZE);
+    long position = channel.position();
+    while (channel.read(buffer) > 0) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        position++;
+        if (buffer.get() == '\n') {
+          return position;
+        }
+      }
+      buffer.clear();
     }
+    return position;
+  }
 
+  /**
+   * Simulates given automaton on every sequence read by given tokenizer. States of automaton are
+   * written as soon as each symbol is read, so no sequence is kept in memory.
+   * 
+   * @param nfa - automaton to simulate
+   * @param tokenizer - tokenizer of input sequences
+   * @param out - writer to which output is written
+   * @throws IOException if I/O errors occurs
+   */
+  private static void simulate(final NFASimulator nfa, final SequenceTokenizer tokenizer,
+      final StateTraceWriter out) throws IOException {
+    boolean newSequence = true;
+    int token;
+    while ((token = tokenizer.next()) != SequenceTokenizer.END_OF_INPUT) {
+      if (newSequence) {
+        out.writeStates(nfa.resetAutomaton());
+        newSequence = false;
+      }
+      if (token == SequenceTokenizer.SYMBOL) {
+        out.writeStepSeparator();
+        out.writeStates(nfa.readSymbol(tokenizer.getSymbol()));
+      } else {
+        out.writeLineSeparator();
+        newSequence = true;
+      }
+    }
   }
 
   /**
-   * Reads and parse first line of input.
+   * Simulates given automaton on every sequence read by given tokenizer. Sequences are read in
+   * batches and sequences of one batch are simulated concurrently. Each worker thread keeps one
+   * copy of automaton for all batches, so engines which cache states, like {@link LazyDFA}, warm up
+   * once per thread. Output is written in order of input sequences.
    * 
-   * @param reader - reader from <i>stdin</i>
-   * @return list of sequences read from first line
+   * @param nfa - automaton to simulate
+   * @param tokenizer - tokenizer of input sequences
+   * @param out - writer to which output is written
    * @throws IOException if I/O errors occurs
    */
-  private static List<List<Symbol>> readSequences(final BufferedReader reader) throws IOException {
-    List<List<Symbol>> sequences = new ArrayList<>();
+  private static void simulateInParallel(final NFASimulator nfa,
+      final SequenceTokenizer tokenizer, final StateTraceWriter out) throws IOException {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    ThreadLocal<NFASimulator> simulators = new ThreadLocal<NFASimulator>() {
+      @Override
+      protected NFASimulator initialValue() {
+        return nfa.copy();
+      }
+    };
+    List<List<Symbol>> batch = new ArrayList<>();
+    List<Symbol> sequence = new ArrayList<>();
+    int token;
+    do {
+      token = tokenizer.next();
+      if (token == SequenceTokenizer.SYMBOL) {
+        sequence.add(tokenizer.getSymbol());
+      } else if (token == SequenceTokenizer.END_OF_SEQUENCE) {
+        batch.add(sequence);
+        sequence = new ArrayList<>();
+      }
 
-    for (String stringSequence : reader.readLine().split("\\|")) {
-      List<Symbol> sequence = new ArrayList<>();
-      for (String stringSymbol : stringSequence.split(",")) {
-        sequence.add(new Symbol(stringSymbol));
+      if (batch.size() == BATCH_SIZE || (token == SequenceTokenizer.END_OF_INPUT
+          && !batch.isEmpty())) {
+        byte[][] traces = new byte[batch.size()][];
+        pool.invoke(new SimulationTask(simulators, batch, traces, 0, batch.size()));
+        for (byte[] trace : traces) {
+          out.write(trace);
+        }
+        batch.clear();
       }
-      sequences.add(sequence);
-    }
+    } while (token != SequenceTokenizer.END_OF_INPUT);
+  }
 
-    return sequences;
+  /**
+   * Simulates given automaton on given sequence and writes states in which automaton was before
+   * and after reading each symbol, followed by line separator.
+   * 
+   * @param nfa - automaton to simulate
+   * @param sequence - sequence of symbols for automaton to read
+   * @param out - writer to which output is written
+   * @throws IOException if I/O errors occurs
+   */
+  private static void trace(final NFASimulator nfa, final List<Symbol> sequence,
+      final StateTraceWriter out) throws IOException {
+    out.writeStates(nfa.resetAutomaton());
+    for (Symbol symbol : sequence) {
+      out.writeStepSeparator();
+      out.writeStates(nfa.readSymbol(symbol));
+    }
+    out.writeLineSeparator();
   }
 
   /**
@@ -92,7 +237,7 @@ public final class SimEnka {
     SortedSet<State> states = new TreeSet<>();
 
     for (String stringState : reader.readLine().split(",")) {
-      states.add(new State(stringState));
+      states.add(State.of(stringState));
     }
 
     return states;
@@ -109,7 +254,7 @@ public final class SimEnka {
     SortedSet<Symbol> alphabet = new TreeSet<>();
 
     for (String stringSymbol : reader.readLine().split(",")) {
-      alphabet.add(new Symbol(stringSymbol));
+      alphabet.add(Symbol.of(stringSymbol));
     }
 
     return alphabet;
@@ -135,7 +280,7 @@ public final class SimEnka {
    * @throws IOException if I/O errors occurs
    */
   private static State readInitialState(final BufferedReader reader) throws IOException {
-    State state = new State(reader.readLine());
+    State state = State.of(reader.readLine());
     return state;
   }
 
@@ -153,15 +298,15 @@ public final class SimEnka {
 
     String transition;
     while ((transition = reader.readLine()) != null && !transition.isEmpty()) {
-      State state = new State(transition.split("->")[0].split(",")[0]);
+      State state = State.of(transition.split("->")[0].split(",")[0]);
 
       String stringSymbol = transition.split("->")[0].split(",")[1];
-      Symbol symbol = new Symbol(stringSymbol.equals("$") ? "" : stringSymbol);
+      Symbol symbol = Symbol.of(stringSymbol.equals("$") ? "" : stringSymbol);
 
       SortedSet<State> states = new TreeSet<>();
       for (String stringState : transition.split("->")[1].split(",")) {
         if (!stringState.equals("#")) {
-          states.add(new State(stringState));
+          states.add(State.of(stringState));
         }
       }
 
@@ -178,4 +323,74 @@ public final class SimEnka {
     return transitionFunction;
   }
 
+  /**
+   * Task which simulates range of sequences. Range is split among worker threads and each part is
+   * simulated with copy of automaton which belongs to thread that runs it.
+   */
+  private static final class SimulationTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Maximal number of sequences which one task simulates without splitting. */
+    private static final int THRESHOLD = 64;
+
+    /** Copy of automaton of each worker thread. */
+    private final ThreadLocal<NFASimulator> simulators;
+
+    /** Sequences to simulate. */
+    private final List<List<Symbol>> sequences;
+
+    /** Output line of each sequence. */
+    private final byte[][] traces;
+
+    /** Index of first sequence in range. */
+    private final int from;
+
+    /** Index after last sequence in range. */
+    private final int to;
+
+    /**
+     * Creates task which simulates sequences with indices from <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive).
+     * 
+     * @param simulators - copy of automaton of each worker thread
+     * @param sequences - sequences to simulate
+     * @param traces - array for output line of each sequence
+     * @param from - index of first sequence in range
+     * @param to - index after last sequence in range
+     */
+    private SimulationTask(final ThreadLocal<NFASimulator> simulators,
+        final List<List<Symbol>> sequences, final byte[][] traces, final int from, final int to) {
+      this.simulators = simulators;
+      this.sequences = sequences;
+      this.traces = traces;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= THRESHOLD) {
+        NFASimulator run = simulators.get();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StateTraceWriter out = new StateTraceWriter(bytes);
+        try {
+          for (int i = from; i < to; i++) {
+            trace(run, sequences.get(i), out);
+            out.flush();
+            traces[i] = bytes.toByteArray();
+            bytes.reset();
+          }
+        } catch (IOException e) {
+          throw new IllegalStateException(e); // cannot happen when writing to byte array
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new SimulationTask(simulators, sequences, traces, from, middle),
+          new SimulationTask(simulators, sequences, traces, middle, to));
+    }
+
+  }
+
 }
@@ -1,23 +1,77 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
- * Represents a state of <i>Finite Automaton</i>.
+ * Represents a state of <i>Finite Automaton</i>. States are interned: for each name there is only
+ * one instance, obtained with {@link #of(String)}, and every instance has a dense integer id given
+ * in order in which states are created. Equality of states is therefore identity and hash code of
+ * state is its id, so states can be compared without comparing names and used as array indices.
  * 
  * @author Herman Zvonimir Dosilovic
  */
 public class State implements Comparable<State> {
 
+  /** Maps name to the only state with that name. */
+  private static final ConcurrentMap<String, State> registry = new ConcurrentHashMap<>();
+
   /** Holds a name of this state. */
   private final String name;
 
+  /** Holds an id of this state. */
+  private final int id;
+
+  /**
+   * Creates state with given name and id.
+   * 
+   * @param name - name of the state
+   * @param id - id of the state
+   */
+  private State(final String name, final int id) {
+    this.name = name;
+    this.id = id;
+  }
+
   /**
-   * Creates state with given name.
+   * Returns the only state with given name. State is created when its name is seen for the first
+   * time.
    * 
    * @param name - name of the state
+   * @return state with given name
    */
-  public State(final String name) {
+  public static State of(final String name) {
     if (name == null || name.isEmpty()) {
       throw new IllegalArgumentException("name cannot be null nor length of 0");
     }
-    this.name = name;
+    State state = registry.get(name);
+    if (state != null) {
+      return state;
+    }
+    synchronized (registry) { // ids are given under lock, so they stay dense
+      state = registry.get(name);
+      if (state == null) {
+        state = new State(name, registry.size());
+        registry.put(name, state);
+      }
+      return state;
+    }
+  }
+
+  /**
+   * Returns number of states created so far. Ids of all states are less than this number.
+   * 
+   * @return number of states created so far
+   */
+  public static int count() {
+    return registry.size();
+  }
+
+  /**
+   * Returns id of the state.
+   * 
+   * @return id of the state
+   */
+  public int getId() {
+    return id;
   }
 
   /**
@@ -34,7 +88,7 @@ public class State implements Comparable<State> {
    */
   @Override
   public int compareTo(final State state) {
-    return name.compareTo(state.getName());
+    return this == state ? 0 : name.compareTo(state.getName());
   }
 
   /**
@@ -47,27 +101,12 @@ public class State implements Comparable<State> {
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((name == null) ? 0 : name.hashCode());
-    return result;
+    return id;
   }
 
   @Override
   public boolean equals(final Object obj) {
-    if (this == obj)
-      return true;
-    if (obj == null)
-      return false;
-    if (getClass() != obj.getClass())
-      return false;
-    State other = (State) obj;
-    if (name == null) {
-      if (other.name != null)
-        return false;
-    } else if (!name.equals(other.name))
-      return false;
-    return true;
+    return this == obj;
   }
 
 }
@@ -0,0 +1,54 @@
+import java.util.Arrays;
+
+/**
+ * Represents set of <i>NFA</i> states stored as bitset of state numbers. Used as key when sets of
+ * states are mapped to states of <i>DFA</i>. Given bitset must not be modified while it is used as
+ * a key.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class StateSet {
+
+  /** Bitset of states. */
+  private final long[] bits;
+
+  /** Cached hash code of bitset. */
+  private final int hash;
+
+  /**
+   * Creates set of states from given bitset.
+   *
+   * @param bits - bitset of states
+   */
+  public StateSet(final long[] bits) {
+    this.bits = bits;
+    this.hash = Arrays.hashCode(bits);
+  }
+
+  /**
+   * Returns bitset of states.
+   *
+   * @return bitset of states
+   */
+  public long[] getBits() {
+    return bits;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    StateSet other = (StateSet) obj;
+    return hash == other.hash && Arrays.equals(bits, other.bits);
+  }
+
+}
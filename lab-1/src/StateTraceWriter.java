@@ -0,0 +1,191 @@
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes states in which automaton was during simulation. Sets of states are written with states
+ * separated with ',' (comma) or as '#' if set is empty, steps are separated with '|' and sequences
+ * with new line. <br>
+ * Output is collected in reusable byte buffer. Names of states are encoded only once and bytes of
+ * every written set of states are cached, so set which repeats is written with a single copy.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class StateTraceWriter implements Flushable {
+
+  /** Default size of output buffer in bytes. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** Maximal number of cached sets of states. When exceeded, cache is emptied. */
+  private static final int MAX_CACHED_SETS = 1 << 16;
+
+  /** Byte written for empty set of states. */
+  private static final byte EMPTY_SET = '#';
+
+  /** Byte written between states of one set. */
+  private static final byte STATE_SEPARATOR = ',';
+
+  /** Byte written between steps of one sequence. */
+  private static final byte STEP_SEPARATOR = '|';
+
+  /** Bytes written after each sequence. */
+  private static final byte[] LINE_SEPARATOR =
+      System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+  /** Stream to which output is written. */
+  private final OutputStream out;
+
+  /** Buffer of output which is not written to stream yet. */
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+
+  /** Number of bytes in buffer. */
+  private int position;
+
+  /** Encoded name of each state. */
+  private final Map<State, byte[]> stateNames = new HashMap<>();
+
+  /** Encoded bytes of each written set of states. */
+  private final Map<List<State>, byte[]> stateSets = new HashMap<>();
+
+  /**
+   * Creates writer which writes to given output stream.
+   *
+   * @param out - stream to which output is written
+   */
+  public StateTraceWriter(final OutputStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Writes given set of states.
+   *
+   * @param states - states to write, in order in which they should be written
+   * @throws IOException if I/O error occurs
+   */
+  public void writeStates(final List<State> states) throws IOException {
+    if (states.isEmpty()) {
+      write(EMPTY_SET);
+      return;
+    }
+
+    byte[] bytes = stateSets.get(states);
+    if (bytes == null) {
+      bytes = encode(states);
+      if (stateSets.size() == MAX_CACHED_SETS) {
+        stateSets.clear();
+      }
+      stateSets.put(new ArrayList<>(states), bytes);
+    }
+    write(bytes);
+  }
+
+  /**
+   * Writes separator between two steps of sequence.
+   *
+   * @throws IOException if I/O error occurs
+   */
+  public void writeStepSeparator() throws IOException {
+    write(STEP_SEPARATOR);
+  }
+
+  /**
+   * Writes separator after the end of sequence.
+   *
+   * @throws IOException if I/O error occurs
+   */
+  public void writeLineSeparator() throws IOException {
+    write(LINE_SEPARATOR);
+  }
+
+  /**
+   * Writes given bytes as they are.
+   *
+   * @param bytes - bytes to write
+   * @throws IOException if I/O error occurs
+   */
+  public void write(final byte[] bytes) throws IOException {
+    if (bytes.length > buffer.length - position) {
+      flushBuffer();
+      if (bytes.length > buffer.length) {
+        out.write(bytes);
+        return;
+      }
+    }
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  /**
+   * Writes given byte.
+   *
+   * @param b - byte to write
+   * @throws IOException if I/O error occurs
+   */
+  private void write(final byte b) throws IOException {
+    if (position == buffer.length) {
+      flushBuffer();
+    }
+    buffer[position++] = b;
+  }
+
+  /**
+   * Writes buffered bytes to stream and flushes stream.
+   *
+   * @throws IOException if I/O error occurs
+   */
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    out.flush();
+  }
+
+  /**
+   * Writes buffered bytes to stream.
+   *
+   * @throws IOException if I/O error occurs
+   */
+  private void flushBuffer() throws IOException {
+    if (position > 0) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+
+  /**
+   * Returns bytes of given non-empty set of states.
+   *
+   * @param states - states to encode
+   * @return bytes of given set of states
+   */
+  private byte[] encode(final List<State> states) {
+    int length = states.size() - 1;
+    byte[][] names = new byte[states.size()][];
+    for (int i = 0; i < names.length; i++) {
+      State state = states.get(i);
+      byte[] name = stateNames.get(state);
+      if (name == null) {
+        name = state.getName().getBytes(StandardCharsets.UTF_8);
+        stateNames.put(state, name);
+      }
+      names[i] = name;
+      length += name.length;
+    }
+
+    byte[] bytes = new byte[length];
+    int offset = 0;
+    for (int i = 0; i < names.length; i++) {
+      if (i > 0) {
+        bytes[offset++] = STATE_SEPARATOR;
+      }
+      System.arraycopy(names[i], 0, bytes, offset, names[i].length);
+      offset += names[i].length;
+    }
+    return bytes;
+  }
+
+}
@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles <i>Nondeterministic Finite Automaton</i> with epsilon-moves into equivalent
+ * <i>Deterministic Finite Automaton</i> using subset construction. Every state of <i>DFA</i> is a
+ * set of <i>NFA</i> states which automaton can be in at the same time. Since number of such sets
+ * can grow exponentially, construction gives up when given maximal number of <i>DFA</i> states is
+ * exceeded. Epsilon symbol is not a symbol of constructed <i>DFA</i>, since epsilon-closures are
+ * already part of every step.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class SubsetConstruction {
+
+  /** Default maximal number of <i>DFA</i> states. */
+  public static final int DEFAULT_MAX_STATES = 1 << 16;
+
+  /** Represents <i>epsilon</i> symbol. */
+  private static final Symbol epsilonSymbol = Symbol.of("");
+
+  /**
+   * Returns <i>DFA</i> equivalent to given <i>NFA</i>, or <code>null</code> if it would have more
+   * than <code>maxStates</code> states.
+   *
+   * @param nfa - automaton to compile
+   * @param maxStates - maximal number of <i>DFA</i> states
+   * @return <i>DFA</i> equivalent to given <i>NFA</i>, or <code>null</code> if it would have more
+   *         than <code>maxStates</code> states
+   */
+  public static SubsetDFA compile(final NFA nfa, final int maxStates) {
+    if (maxStates < 1) {
+      throw new IllegalArgumentException("maximal number of states must be positive");
+    }
+
+    BitsetNFA bitsetNfa = new BitsetNFA(nfa);
+    int[] symbolIndices = readableSymbols(bitsetNfa);
+    int symbolCount = symbolIndices.length;
+
+    long[] acceptableStates = bitsetNfa.toBits(nfa.getAcceptableStates());
+
+    Map<StateSet, Integer> stateIds = new HashMap<>();
+    List<StateSet> stateSets = new ArrayList<>();
+    StateSet initialState = new StateSet(bitsetNfa.initialStateBits().clone());
+    stateIds.put(initialState, 0);
+    stateSets.add(initialState);
+
+    int[] transitions = new int[symbolCount];
+    long[] buffer = new long[bitsetNfa.words()];
+    for (int state = 0; state < stateSets.size(); state++) {
+      long[] bits = stateSets.get(state).getBits();
+      for (int symbol = 0; symbol < symbolCount; symbol++) {
+        bitsetNfa.step(bits, symbolIndices[symbol], buffer);
+        StateSet next = new StateSet(buffer.clone());
+        Integer id = stateIds.get(next);
+        if (id == null) {
+          if (stateSets.size() == maxStates) {
+            return null;
+          }
+          id = stateSets.size();
+          stateIds.put(next, id);
+          stateSets.add(next);
+          if (transitions.length < stateSets.size() * symbolCount) {
+            transitions = Arrays.copyOf(transitions, 2 * transitions.length);
+          }
+        }
+        transitions[state * symbolCount + symbol] = id;
+      }
+    }
+
+    int stateCount = stateSets.size();
+    List<List<State>> states = new ArrayList<>(stateCount);
+    boolean[] acceptable = new boolean[stateCount];
+    for (int state = 0; state < stateCount; state++) {
+      long[] bits = stateSets.get(state).getBits();
+      states.add(bitsetNfa.toStates(bits));
+      for (int word = 0; word < bits.length; word++) {
+        if ((bits[word] & acceptableStates[word]) != 0) {
+          acceptable[state] = true;
+          break;
+        }
+      }
+    }
+
+    List<Symbol> symbols = new ArrayList<>(symbolCount);
+    for (int symbol = 0; symbol < symbolCount; symbol++) {
+      symbols.add(bitsetNfa.symbol(symbolIndices[symbol]));
+    }
+
+    return new SubsetDFA(states, symbols, Arrays.copyOf(transitions, stateCount * symbolCount),
+        acceptable);
+  }
+
+  /**
+   * Returns numbers of all symbols of given engine except <i>epsilon</i> symbol.
+   *
+   * @param bitsetNfa - engine whose symbols are returned
+   * @return numbers of all symbols which can be read, in ascending order
+   */
+  private static int[] readableSymbols(final BitsetNFA bitsetNfa) {
+    int epsilon = bitsetNfa.symbolIndex(epsilonSymbol);
+    int[] symbolIndices = new int[bitsetNfa.symbolCount() - (epsilon < 0 ? 0 : 1)];
+    int count = 0;
+    for (int symbol = 0; symbol < bitsetNfa.symbolCount(); symbol++) {
+      if (symbol != epsilon) {
+        symbolIndices[count++] = symbol;
+      }
+    }
+    return symbolIndices;
+  }
+
+  /**
+   * Returns simulation engine for given <i>NFA</i>. If equivalent <i>DFA</i> has at most
+   * <code>maxStates</code> states, returned engine runs on its deterministic table, otherwise
+   * <i>NFA</i> is simulated directly.
+   *
+   * @param nfa - automaton to simulate
+   * @param maxStates - maximal number of <i>DFA</i> states
+   * @return simulation engine for given <i>NFA</i>
+   */
+  public static NFASimulator compileOrSimulate(final NFA nfa, final int maxStates) {
+    SubsetDFA dfa = compile(nfa, maxStates);
+    if (dfa == null) {
+      return new LazyDFA(nfa);
+    }
+    return dfa;
+  }
+
+}
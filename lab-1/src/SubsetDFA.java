@@ -0,0 +1,206 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Represents <i>Deterministic Finite Automaton</i> created from <i>NFA</i> by
+ * {@link SubsetConstruction}. Each state of this automaton is a set of <i>NFA</i> states, so it can
+ * be used as simulation engine of original <i>NFA</i> in which every step is a single array lookup.
+ * <br>
+ * Empty set of <i>NFA</i> states is an ordinary state of this automaton, so its transition function
+ * is complete. Lists of states returned by this engine cannot be modified.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public class SubsetDFA implements NFASimulator {
+
+  /** Prefix of state names used when automaton is written. */
+  private static final String STATE_PREFIX = "q";
+
+  /** Set of <i>NFA</i> states of each state, indexed by state number. */
+  private final List<List<State>> states;
+
+  /** Symbols of automaton, indexed by their number. */
+  private final List<Symbol> symbols;
+
+  /** Maps symbol to its number. */
+  private final Map<Symbol, Integer> symbolIndex;
+
+  /**
+   * Next state for each pair <i>(state, symbol)</i>, stored at index
+   * <code>state * symbolCount + symbol</code>.
+   */
+  private final int[] transitions;
+
+  /** Tells for each state whether it is acceptable. */
+  private final boolean[] acceptable;
+
+  /** Number of state reached by reading symbol unknown to automaton. */
+  private final int emptyState;
+
+  /** Number of current state. */
+  private int currentState;
+
+  /**
+   * Creates new <i>DFA</i> from result of subset construction. Initial state has number
+   * <code>0</code>.
+   *
+   * @param states - set of <i>NFA</i> states of each state
+   * @param symbols - symbols of automaton
+   * @param transitions - next state for each pair <i>(state, symbol)</i>
+   * @param acceptable - tells for each state whether it is acceptable
+   */
+  SubsetDFA(final List<List<State>> states, final List<Symbol> symbols, final int[] transitions,
+      final boolean[] acceptable) {
+    this.states = new ArrayList<>(states.size());
+    int empty = -1;
+    for (int i = 0; i < states.size(); i++) {
+      this.states.add(Collections.unmodifiableList(states.get(i)));
+      if (states.get(i).isEmpty()) {
+        empty = i;
+      }
+    }
+    this.symbols = symbols;
+    symbolIndex = new HashMap<>();
+    for (int i = 0; i < symbols.size(); i++) {
+      symbolIndex.put(symbols.get(i), i);
+    }
+    this.transitions = transitions;
+    this.acceptable = acceptable;
+
+    if (empty == -1) {
+      empty = this.states.size();
+      this.states.add(Collections.<State>emptyList());
+    }
+    emptyState = empty;
+  }
+
+  /**
+   * Creates new <i>DFA</i> which shares all tables with given <i>DFA</i>. Its current state is set
+   * to initial state.
+   *
+   * @param dfa - automaton whose tables are shared
+   */
+  private SubsetDFA(final SubsetDFA dfa) {
+    states = dfa.states;
+    symbols = dfa.symbols;
+    symbolIndex = dfa.symbolIndex;
+    transitions = dfa.transitions;
+    acceptable = dfa.acceptable;
+    emptyState = dfa.emptyState;
+  }
+
+  @Override
+  public List<State> readSymbol(final Symbol symbol) {
+    Integer index = symbolIndex.get(symbol);
+    if (index == null || currentState == emptyState) {
+      currentState = emptyState;
+    } else {
+      currentState = transitions[currentState * symbols.size() + index];
+    }
+    return states.get(currentState);
+  }
+
+  @Override
+  public List<List<State>> readSequence(final List<Symbol> sequence) {
+    List<List<State>> states = new ArrayList<>();
+    for (Symbol symbol : sequence) {
+      states.add(readSymbol(symbol));
+    }
+    return states;
+  }
+
+  @Override
+  public List<State> resetAutomaton() {
+    currentState = 0;
+    return states.get(currentState);
+  }
+
+  @Override
+  public List<State> getCurrentState() {
+    return states.get(currentState);
+  }
+
+  @Override
+  public List<State> getInitialState() {
+    return states.get(0);
+  }
+
+  @Override
+  public SubsetDFA copy() {
+    return new SubsetDFA(this);
+  }
+
+  /**
+   * Returns number of states of this automaton.
+   *
+   * @return number of states of this automaton
+   */
+  public int getStateCount() {
+    return acceptable.length;
+  }
+
+  /**
+   * Writes definition of this automaton to given output stream in the same format in which
+   * <i>DFA</i> definition is given to <i>DFA</i> minimizer. State with number <i>i</i> is named
+   * <i>qi</i> and initial state is <i>q0</i>.
+   *
+   * @param outputStream - output stream for write
+   */
+  public void write(final OutputStream outputStream) {
+    PrintStream stream = new PrintStream(outputStream);
+
+    SortedMap<String, Integer> names = new TreeMap<>();
+    for (int state = 0; state < acceptable.length; state++) {
+      names.put(STATE_PREFIX + state, state);
+    }
+    SortedMap<String, Integer> alphabet = new TreeMap<>();
+    for (int symbol = 0; symbol < symbols.size(); symbol++) {
+      alphabet.put(symbols.get(symbol).getName(), symbol);
+    }
+
+    stream.println(join(names.keySet()));
+    stream.println(join(alphabet.keySet()));
+    List<String> acceptableNames = new ArrayList<>();
+    for (Map.Entry<String, Integer> entry : names.entrySet()) {
+      if (acceptable[entry.getValue()]) {
+        acceptableNames.add(entry.getKey());
+      }
+    }
+    stream.println(join(acceptableNames));
+    stream.println(STATE_PREFIX + 0);
+
+    for (Map.Entry<String, Integer> state : names.entrySet()) {
+      for (Map.Entry<String, Integer> symbol : alphabet.entrySet()) {
+        int next = transitions[state.getValue() * symbols.size() + symbol.getValue()];
+        stream.println(state.getKey() + "," + symbol.getKey() + "->" + STATE_PREFIX + next);
+      }
+    }
+
+    stream.flush();
+  }
+
+  /**
+   * Joins given names with ',' (comma).
+   *
+   * @param names - names to join
+   * @return names separated with ',' (comma)
+   */
+  private static String join(final Iterable<String> names) {
+    StringBuilder builder = new StringBuilder();
+    for (String name : names) {
+      if (builder.length() > 0) {
+        builder.append(",");
+      }
+      builder.append(name);
+    }
+    return builder.toString();
+  }
+
+}
@@ -1,23 +1,85 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Represents symbol of alphabet. If symbol is empty then it is considered to be <i>epsilon</i>.
+ * Symbols are interned: for each name there is only one instance, obtained with
+ * {@link #of(String)}, and every instance has a dense integer id given in order in which symbols
+ * are created. Equality of symbols is therefore identity and hash code of symbol is its id.
  * 
  * @author Herman Zvonimir Dosilovic
  */
 public class Symbol implements Comparable<Symbol> {
 
+  /** Maps name to the only symbol with that name. */
+  private static final ConcurrentMap<String, Symbol> registry = new ConcurrentHashMap<>();
+
+  /**
+   * Symbol which stands for every name which automaton does not know. It is not obtained with
+   * {@link #of(String)}, so it differs from every other symbol, and its id is larger than id of any
+   * other symbol.
+   */
+  public static final Symbol UNKNOWN = new Symbol("?", Integer.MAX_VALUE);
+
   /** Holds a name of this symbol. */
   private final String name;
 
+  /** Holds an id of this symbol. */
+  private final int id;
+
+  /**
+   * Creates symbol with given name and id.
+   * 
+   * @param name - name of the symbol
+   * @param id - id of the symbol
+   */
+  private Symbol(final String name, final int id) {
+    this.name = name;
+    this.id = id;
+  }
+
   /**
-   * Creates symbol with given name.
+   * Returns the only symbol with given name. Symbol is created when its name is seen for the
+   * first time.
    * 
    * @param name - name of the symbol
+   * @return symbol with given name
    */
-  public Symbol(final String name) {
+  public static Symbol of(final String name) {
     if (name == null) {
       throw new IllegalArgumentException("name cannot be null");
     }
-    this.name = name;
+    Symbol symbol = registry.get(name);
+    if (symbol != null) {
+      return symbol;
+    }
+    synchronized (registry) { // ids are given under lock, so they stay dense
+      symbol = registry.get(name);
+      if (symbol == null) {
+        symbol = new Symbol(name, registry.size());
+        registry.put(name, symbol);
+      }
+      return symbol;
+    }
+  }
+
+  /**
+   * Returns number of symbols created so far. Ids of all symbols except {@link #UNKNOWN} are less
+   * than this number.
+   * 
+   * @return number of symbols created so far
+   */
+  public static int count() {
+    return registry.size();
+  }
+
+  /**
+   * Returns id of the symbol.
+   * 
+   * @return id of the symbol
+   */
+  public int getId() {
+    return id;
   }
 
   /**
@@ -34,7 +96,7 @@ public class Symbol implements Comparable<Symbol> {
    */
   @Override
   public int compareTo(final Symbol symbol) {
-    return name.compareTo(symbol.getName());
+    return this == symbol ? 0 : name.compareTo(symbol.getName());
   }
 
   /**
@@ -47,27 +109,12 @@ public class Symbol implements Comparable<Symbol> {
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((name == null) ? 0 : name.hashCode());
-    return result;
+    return id;
   }
 
   @Override
   public boolean equals(final Object obj) {
-    if (this == obj)
-      return true;
-    if (obj == null)
-      return false;
-    if (getClass() != obj.getClass())
-      return false;
-    Symbol other = (Symbol) obj;
-    if (name == null) {
-      if (other.name != null)
-        return false;
-    } else if (!name.equals(other.name))
-      return false;
-    return true;
+    return this == obj;
   }
 
 }
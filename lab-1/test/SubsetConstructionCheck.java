@@ -0,0 +1,102 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Checks of {@link SubsetConstruction} which cannot be written as input and output pairs of
+ * {@link SimEnka}, since program never writes constructed <i>DFA</i>. Program writes every failed
+ * check and exits with status <code>1</code> if any check failed.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class SubsetConstructionCheck {
+
+  /** Represents <i>epsilon</i> symbol. */
+  private static final Symbol epsilonSymbol = Symbol.of("");
+
+  /** Number of failed checks. */
+  private static int failed;
+
+  /**
+   * Program entry.
+   *
+   * @param args - command line arguments, not used
+   */
+  public static void main(final String[] args) {
+    // p,$->q and q,a->r: epsilon symbol must not create state of its own
+    NFA nfa = createNFA(new String[][] {{"p", "$", "q"}, {"q", "a", "r"}});
+    SubsetDFA dfa = SubsetConstruction.compile(nfa, 3);
+    check("DFA with 3 states fits into 3 states", dfa != null);
+    check("subset construction with 2 states gives up",
+        SubsetConstruction.compile(nfa, 2) == null);
+    if (dfa != null) {
+      check("DFA has 3 states", dfa.getStateCount() == 3);
+      check("written DFA has no unreachable state", write(dfa).equals(String.join("\n", "q0,q1,q2",
+          "a", "q1", "q0", "q0,a->q1", "q1,a->q2", "q2,a->q2", "")));
+      check("epsilon symbol is not read as input",
+          dfa.readSymbol(epsilonSymbol).isEmpty() && dfa.resetAutomaton().size() == 2);
+    }
+
+    if (failed > 0) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Records result of one check and writes its description if it failed.
+   *
+   * @param description - description of check
+   * @param passed - <code>true</code> if check passed
+   */
+  private static void check(final String description, final boolean passed) {
+    if (!passed) {
+      System.out.println("FAIL " + description);
+      failed++;
+    }
+  }
+
+  /**
+   * Returns automaton with given transitions whose initial state is source of first transition
+   * and acceptable state is target of last transition. Symbol <code>$</code> denotes
+   * <i>epsilon</i> symbol.
+   *
+   * @param transitions - transitions given as triples <i>(state, symbol, next state)</i>
+   * @return automaton with given transitions
+   */
+  private static NFA createNFA(final String[][] transitions) {
+    SortedSet<State> states = new TreeSet<>();
+    SortedSet<Symbol> alphabet = new TreeSet<>();
+    Map<Pair<State, Symbol>, SortedSet<State>> transitionFunction = new HashMap<>();
+    for (String[] transition : transitions) {
+      State state = State.of(transition[0]);
+      Symbol symbol = transition[1].equals("$") ? epsilonSymbol : Symbol.of(transition[1]);
+      State next = State.of(transition[2]);
+      states.addAll(Arrays.asList(state, next));
+      if (symbol != epsilonSymbol) {
+        alphabet.add(symbol);
+      }
+      transitionFunction.put(new Pair<>(state, symbol), new TreeSet<>(Arrays.asList(next)));
+    }
+    SortedSet<State> acceptableStates = new TreeSet<>();
+    acceptableStates.add(State.of(transitions[transitions.length - 1][2]));
+    return new NFA(states, alphabet, transitionFunction, State.of(transitions[0][0]),
+        acceptableStates);
+  }
+
+  /**
+   * Returns definition of given automaton written by {@link SubsetDFA#write(java.io.OutputStream)}.
+   *
+   * @param dfa - automaton to write
+   * @return definition of automaton, with lines separated with '\n'
+   */
+  private static String write(final SubsetDFA dfa) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    dfa.write(bytes);
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+  }
+
+}
@@ -0,0 +1,25 @@
+#!/bin/sh
+# Runs SimEnka on test cases in SimEnka-options, which need command line arguments, so they cannot
+# be run as plain input and output pairs. Case NN consists of:
+#   SimEnka.in.NN   - standard input
+#   SimEnka.args.NN - command line arguments on one line, if there are any
+#   SimEnka.out.NN  - expected standard output
+#
+# usage: run-options.sh <directory with compiled classes>
+
+classes=${1:?usage: run-options.sh <directory with compiled classes>}
+cases=$(dirname "$0")/SimEnka-options
+actual=$(mktemp)
+failed=0
+for in in "$cases"/SimEnka.in.*; do
+  n=${in##*.}
+  args=$(cat "$cases/SimEnka.args.$n" 2>/dev/null)
+  # arguments are split on spaces on purpose
+  java -cp "$classes" SimEnka $args < "$in" > "$actual"
+  if ! cmp -s "$actual" "$cases/SimEnka.out.$n"; then
+    echo "FAIL $n"
+    failed=1
+  fi
+done
+rm -f "$actual"
+exit $failed
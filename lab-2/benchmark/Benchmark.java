@@ -0,0 +1,233 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal harness for microbenchmarks. Benchmark is run for every combination of variant, size
+ * and length given on command line. Each combination is prepared with
+ * {@link #setUp(String, int, int)}, warmed up and then measured in several iterations. In each
+ * iteration {@link #run()} is called repeatedly until at least {@link #ITERATION_TIME_NANOS}
+ * passes, and average time of one call is recorded. Results are written as one line per
+ * combination, so outputs of two runs can be compared with <code>diff</code>. Combination whose
+ * preparation or operation fails is reported as failed and the rest are still run. <br>
+ * Supported options are:
+ * <ul>
+ * <li><code>--variants a,b</code> - variants to run, by default all of {@link #variants()}
+ * <li><code>--sizes 10,100</code> - sizes of automaton
+ * <li><code>--lengths 10,100</code> - lengths of input
+ * <li><code>--warmup n</code> - number of warmup iterations
+ * <li><code>--iterations n</code> - number of measured iterations
+ * <li><code>--seed n</code> - seed of generator of synthetic inputs
+ * </ul>
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public abstract class Benchmark {
+
+  /** Minimal duration of one iteration in nanoseconds. */
+  private static final long ITERATION_TIME_NANOS = 200_000_000L;
+
+  /** Default number of warmup iterations. */
+  private static final int DEFAULT_WARMUP = 5;
+
+  /** Default number of measured iterations. */
+  private static final int DEFAULT_ITERATIONS = 10;
+
+  /** Default seed of generator of synthetic inputs. */
+  private static final long DEFAULT_SEED = 42;
+
+  /** Collects results of {@link #run()}, so calls cannot be optimized away. */
+  private static volatile int sink;
+
+  /** Seed of generator of synthetic inputs. */
+  protected long seed = DEFAULT_SEED;
+
+  /**
+   * Returns name of this benchmark.
+   *
+   * @return name of this benchmark
+   */
+  protected abstract String name();
+
+  /**
+   * Returns all variants of this benchmark, for example different engines.
+   *
+   * @return all variants of this benchmark
+   */
+  protected abstract String[] variants();
+
+  /**
+   * Returns default sizes of automaton.
+   *
+   * @return default sizes of automaton
+   */
+  protected abstract int[] defaultSizes();
+
+  /**
+   * Returns default lengths of input.
+   *
+   * @return default lengths of input
+   */
+  protected abstract int[] defaultLengths();
+
+  /**
+   * Prepares automaton and input for following calls of {@link #run()}. Time spent here is not
+   * measured.
+   *
+   * @param variant variant of benchmark
+   * @param size size of automaton
+   * @param length length of input
+   * @throws Exception if benchmark cannot be prepared
+   */
+  protected abstract void setUp(String variant, int size, int length) throws Exception;
+
+  /**
+   * Runs measured operation once.
+   *
+   * @return result of operation
+   * @throws Exception if operation fails
+   */
+  protected abstract Object run() throws Exception;
+
+  /**
+   * Runs given benchmark with options given on command line and writes results to standard
+   * output.
+   *
+   * @param benchmark benchmark to run
+   * @param args command line options
+   * @throws Exception if benchmark fails
+   */
+  protected static void execute(final Benchmark benchmark, final String[] args) throws Exception {
+    String[] variants = benchmark.variants();
+    int[] sizes = benchmark.defaultSizes();
+    int[] lengths = benchmark.defaultLengths();
+    int warmup = DEFAULT_WARMUP;
+    int iterations = DEFAULT_ITERATIONS;
+
+    for (int i = 0; i < args.length; i++) {
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException("missing value of option " + args[i]);
+      }
+      String value = args[++i];
+      switch (args[i - 1]) {
+        case "--variants":
+          variants = value.split(",");
+          break;
+        case "--sizes":
+          sizes = parseInts(value);
+          break;
+        case "--lengths":
+          lengths = parseInts(value);
+          break;
+        case "--warmup":
+          warmup = Integer.parseInt(value);
+          break;
+        case "--iterations":
+          iterations = Integer.parseInt(value);
+          break;
+        case "--seed":
+          benchmark.seed = Long.parseLong(value);
+          break;
+        default:
+          throw new IllegalArgumentException("unknown option " + args[i - 1]);
+      }
+    }
+
+    PrintStream out = System.out;
+    out.printf("%-24s %-16s %8s %10s %16s %12s%n", "benchmark", "variant", "size", "length",
+        "us/op", "error");
+    for (String variant : variants) {
+      for (int size : sizes) {
+        for (int length : lengths) {
+          double[] results = new double[iterations];
+          try {
+            benchmark.setUp(variant, size, length);
+            for (int i = 0; i < warmup; i++) {
+              benchmark.iteration();
+            }
+            for (int i = 0; i < iterations; i++) {
+              results[i] = benchmark.iteration();
+            }
+          } catch (Exception | Error e) { // reported, so that other combinations can still run
+            out.printf("%-24s %-16s %8d %10d %29s%n", benchmark.name(), variant, size, length,
+                "FAILED " + e.getClass().getSimpleName());
+            continue;
+          }
+          out.printf("%-24s %-16s %8d %10d %16.3f %12.3f%n", benchmark.name(), variant, size,
+              length, mean(results) / 1000, deviation(results) / 1000);
+        }
+      }
+    }
+  }
+
+  /**
+   * Calls {@link #run()} until minimal duration of iteration passes.
+   *
+   * @return average duration of one call in nanoseconds
+   * @throws Exception if operation fails
+   */
+  private double iteration() throws Exception {
+    int calls = 0;
+    int hash = 0;
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      hash ^= System.identityHashCode(run());
+      calls++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < ITERATION_TIME_NANOS);
+    sink ^= hash;
+    return (double) elapsed / calls;
+  }
+
+  /**
+   * Parses list of integers separated with ',' (comma).
+   *
+   * @param value integers separated with comma
+   * @return parsed integers
+   */
+  private static int[] parseInts(final String value) {
+    List<Integer> list = new ArrayList<>();
+    for (String part : value.split(",")) {
+      list.add(Integer.parseInt(part.trim()));
+    }
+    int[] ints = new int[list.size()];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = list.get(i);
+    }
+    return ints;
+  }
+
+  /**
+   * Returns mean of given values.
+   *
+   * @param values values
+   * @return mean of given values
+   */
+  private static double mean(final double[] values) {
+    double sum = 0;
+    for (double value : values) {
+      sum += value;
+    }
+    return sum / values.length;
+  }
+
+  /**
+   * Returns standard deviation of given values.
+   *
+   * @param values values
+   * @return standard deviation of given values
+   */
+  private static double deviation(final double[] values) {
+    if (values.length < 2) {
+      return 0;
+    }
+    double mean = mean(values);
+    double sum = 0;
+    for (double value : values) {
+      sum += (value - mean) * (value - mean);
+    }
+    return Math.sqrt(sum / (values.length - 1));
+  }
+
+}
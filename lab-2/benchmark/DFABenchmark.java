@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures <code>readSequence</code> of {@link DFA} and {@link CompiledDFA} on synthetic
+ * automata. Size is number of states of automaton and length is number of symbols in sequence.
+ * Generated automaton is complete, has alphabet of {@link #ALPHABET_SIZE} symbols, and every
+ * fourth state is acceptable. In variants <code>CompiledDFA.sink</code> and
+ * <code>CompiledDFA.readUntilDecided</code> its last state is a rejecting sink, which the latter
+ * stops reading in.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class DFABenchmark extends Benchmark {
+
+  /** Number of symbols of generated automaton. */
+  private static final int ALPHABET_SIZE = 4;
+
+  /** Automaton which is measured if variant is <code>DFA</code>. */
+  private DFA dfa;
+
+  /** Automaton which is measured if variant is <code>CompiledDFA</code>. */
+  private CompiledDFA compiledDfa;
+
+  /** Tells if sequence is read with <code>readUntilDecided</code>. */
+  private boolean untilDecided;
+
+  /** Sequence which automaton reads. */
+  private List<Symbol> sequence;
+
+  /**
+   * Program entry. Options are described in {@link Benchmark}.
+   *
+   * @param args command line options
+   * @throws Exception if benchmark fails
+   */
+  public static void main(final String[] args) throws Exception {
+    execute(new DFABenchmark(), args);
+  }
+
+  @Override
+  protected String name() {
+    return "DFA.readSequence";
+  }
+
+  @Override
+  protected String[] variants() {
+    return new String[] {"DFA", "CompiledDFA", "CompiledDFA.sink", "CompiledDFA.readUntilDecided"};
+  }
+
+  @Override
+  protected int[] defaultSizes() {
+    return new int[] {10, 1000};
+  }
+
+  @Override
+  protected int[] defaultLengths() {
+    return new int[] {100, 10000};
+  }
+
+  @Override
+  protected void setUp(final String variant, final int size, final int length)
+      throws DFAException {
+    Random random = new Random(seed);
+    boolean rejectingSink = variant.equals("CompiledDFA.sink")
+        || variant.equals("CompiledDFA.readUntilDecided");
+    dfa = generateDFA(random, size, rejectingSink);
+    sequence = new ArrayList<>(length);
+    for (int i = 0; i < length; i++) {
+      sequence.add(symbol(random.nextInt(ALPHABET_SIZE)));
+    }
+
+    untilDecided = false;
+    switch (variant) {
+      case "DFA":
+        compiledDfa = null;
+        break;
+      case "CompiledDFA":
+      case "CompiledDFA.sink":
+        compiledDfa = new CompiledDFA(dfa);
+        break;
+      case "CompiledDFA.readUntilDecided":
+        compiledDfa = new CompiledDFA(dfa);
+        untilDecided = true;
+        break;
+      default:
+        throw new IllegalArgumentException("unknown variant " + variant);
+    }
+  }
+
+  @Override
+  protected Object run() throws DFAException {
+    if (untilDecided) {
+      compiledDfa.reset();
+      return compiledDfa.readUntilDecided(sequence);
+    }
+    if (compiledDfa != null) {
+      compiledDfa.reset();
+      return compiledDfa.readSequence(sequence);
+    }
+    dfa.reset();
+    return dfa.readSequence(sequence);
+  }
+
+  /**
+   * Returns random complete automaton with given number of states. If rejecting sink is
+   * requested, last state is unacceptable and goes to itself over every symbol, and the rest of
+   * automaton is the same as without it.
+   *
+   * @param random generator of random numbers
+   * @param size number of states
+   * @param rejectingSink tells if last state is rejecting sink
+   * @return random automaton
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  static DFA generateDFA(final Random random, final int size, final boolean rejectingSink)
+      throws DFAException {
+    List<State> states = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      states.add(State.of("q" + i));
+    }
+    List<Symbol> alphabet = new ArrayList<>();
+    for (int i = 0; i < ALPHABET_SIZE; i++) {
+      alphabet.add(symbol(i));
+    }
+
+    List<State> acceptableStates = new ArrayList<>();
+    Map<CommutativePair<State, Symbol>, State> transitionFunction = new HashMap<>();
+    State sink = rejectingSink ? states.get(size - 1) : null;
+    for (State state : states) {
+      for (Symbol symbol : alphabet) {
+        State target = states.get(random.nextInt(size));
+        transitionFunction.put(new CommutativePair<>(state, symbol),
+            state == sink ? sink : target);
+      }
+      if (random.nextInt(4) == 0 && state != sink) {
+        acceptableStates.add(state);
+      }
+    }
+
+    return new DFA(new DFADefinition(states, alphabet, states.get(0), acceptableStates,
+        transitionFunction));
+  }
+
+  /**
+   * Returns symbol with given number.
+   *
+   * @param i number of symbol
+   * @return symbol with given number
+   */
+  private static Symbol symbol(final int i) {
+    return Symbol.of(String.valueOf((char) ('a' + i)));
+  }
+
+}
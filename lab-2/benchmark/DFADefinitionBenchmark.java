@@ -0,0 +1,129 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures loading of automaton from file in text format of {@link DFADefinition}, with its
+ * constructor and with streaming parser, and in binary format of {@link DFABinaryFormat}. Size is
+ * number of states of automaton and length is number of symbols of its alphabet. Generated
+ * automaton is complete and is written to temporary file before measurement.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class DFADefinitionBenchmark extends Benchmark {
+
+  /** Variant which loads text format with {@link DFADefinition#DFADefinition(InputStream)}. */
+  private static final String TEXT = "text";
+
+  /** Variant which loads text format with {@link DFADefinition#parse(InputStream)}. */
+  private static final String STREAMING = "streaming";
+
+  /** Variant which loads binary format. */
+  private static final String BINARY = "binary";
+
+  /** Variant which is measured. */
+  private String variant;
+
+  /** File from which automaton is loaded. */
+  private Path path;
+
+  /**
+   * Program entry. Options are described in {@link Benchmark}.
+   *
+   * @param args command line options
+   * @throws Exception if benchmark fails
+   */
+  public static void main(final String[] args) throws Exception {
+    execute(new DFADefinitionBenchmark(), args);
+  }
+
+  @Override
+  protected String name() {
+    return "DFADefinition.load";
+  }
+
+  @Override
+  protected String[] variants() {
+    return new String[] {TEXT, STREAMING, BINARY};
+  }
+
+  @Override
+  protected int[] defaultSizes() {
+    return new int[] {1000, 100000};
+  }
+
+  @Override
+  protected int[] defaultLengths() {
+    return new int[] {2, 20};
+  }
+
+  @Override
+  protected void setUp(final String variant, final int size, final int length) throws Exception {
+    this.variant = variant;
+    DFA dfa = generateDFA(new Random(seed), size, length);
+
+    File file = File.createTempFile("dfa-benchmark", "." + variant);
+    file.deleteOnExit();
+    path = file.toPath();
+    switch (variant) {
+      case TEXT:
+      case STREAMING:
+        DFADefinition.write(new FileOutputStream(file), dfa);
+        break;
+      case BINARY:
+        DFABinaryFormat.write(new CompiledDFA(dfa), path);
+        break;
+      default:
+        throw new IllegalArgumentException("unknown variant " + variant);
+    }
+  }
+
+  @Override
+  protected Object run() throws Exception {
+    if (variant.equals(BINARY)) {
+      return DFABinaryFormat.read(path);
+    }
+    try (InputStream stream = Files.newInputStream(path)) {
+      return variant.equals(STREAMING) ? DFADefinition.parse(stream) : new DFADefinition(stream);
+    }
+  }
+
+  /**
+   * Returns random complete automaton with given number of states and symbols, in which every
+   * fourth state is acceptable.
+   *
+   * @param random generator of random numbers
+   * @param size number of states
+   * @param length number of symbols
+   * @return random automaton
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  private static DFA generateDFA(final Random random, final int size, final int length)
+      throws DFAException {
+    State[] states = new State[size];
+    for (int i = 0; i < size; i++) {
+      states[i] = State.of("q" + i);
+    }
+    Symbol[] symbols = new Symbol[length];
+    for (int i = 0; i < length; i++) {
+      symbols[i] = Symbol.of("s" + i);
+    }
+    Arrays.sort(states);
+    Arrays.sort(symbols);
+
+    int[] transitions = new int[size * length];
+    for (int i = 0; i < transitions.length; i++) {
+      transitions[i] = random.nextInt(size);
+    }
+    long[] acceptable = new long[(size + Long.SIZE - 1) / Long.SIZE];
+    for (int i = 0; i < size; i += 4) {
+      acceptable[i / Long.SIZE] |= 1L << i;
+    }
+    return new CompiledDFA(states, symbols, transitions, acceptable, 0).toDFA();
+  }
+
+}
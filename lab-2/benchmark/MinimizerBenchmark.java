@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures {@link DFAMinimizer#minimize(DFA, MinimizationAlgorithm)} with every algorithm on
+ * synthetic automata. Variants are names of {@link MinimizationAlgorithm} constants, optionally
+ * followed by shape of automaton. Size is number of states of automaton and length is number of
+ * symbols of its alphabet. Generated automaton has one of shapes:
+ * <ul>
+ * <li>by default, it is complete and about half of its states are equivalent to some other
+ * state, so minimization has work to do</li>
+ * <li>with <code>-sparse</code>, it is the same, but has only about one in
+ * {@link #SPARSE_DENSITY} transitions</li>
+ * <li>with <code>-reversible</code>, every symbol permutes states and there is one acceptable
+ * state</li>
+ * </ul>
+ * New automaton is created from the same definition before each minimization and that time is
+ * also measured, so results stay comparable with earlier versions of minimizer, which modified
+ * transition function of given automaton.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class MinimizerBenchmark extends Benchmark {
+
+  /** Suffix of variants which minimize sparse automata. */
+  private static final String SPARSE_SUFFIX = "-sparse";
+
+  /** Suffix of variants which minimize automata whose reversal is deterministic. */
+  private static final String REVERSIBLE_SUFFIX = "-reversible";
+
+  /** Sparse automaton has one in this many transitions of complete automaton. */
+  private static final int SPARSE_DENSITY = 16;
+
+  /** Algorithm which is measured. */
+  private MinimizationAlgorithm algorithm;
+
+  /** States of generated automaton. */
+  private List<State> states;
+
+  /** Alphabet of generated automaton. */
+  private List<Symbol> alphabet;
+
+  /** Acceptable states of generated automaton. */
+  private List<State> acceptableStates;
+
+  /** Transition function of generated automaton. */
+  private Map<CommutativePair<State, Symbol>, State> transitionFunction;
+
+  /**
+   * Program entry. Options are described in {@link Benchmark}.
+   *
+   * @param args command line options
+   * @throws Exception if benchmark fails
+   */
+  public static void main(final String[] args) throws Exception {
+    execute(new MinimizerBenchmark(), args);
+  }
+
+  @Override
+  protected String name() {
+    return "DFAMinimizer.minimize";
+  }
+
+  @Override
+  protected String[] variants() {
+    List<String> variants = new ArrayList<>();
+    for (MinimizationAlgorithm algorithm : MinimizationAlgorithm.values()) {
+      variants.add(algorithm.name());
+    }
+    for (MinimizationAlgorithm algorithm : MinimizationAlgorithm.values()) {
+      if (algorithm != MinimizationAlgorithm.TABLE_FILLING) { // it does not support partial DFA
+        variants.add(algorithm.name() + SPARSE_SUFFIX);
+      }
+    }
+    for (MinimizationAlgorithm algorithm : MinimizationAlgorithm.values()) {
+      variants.add(algorithm.name() + REVERSIBLE_SUFFIX);
+    }
+    return variants.toArray(new String[variants.size()]);
+  }
+
+  @Override
+  protected int[] defaultSizes() {
+    return new int[] {16, 64, 256};
+  }
+
+  @Override
+  protected int[] defaultLengths() {
+    return new int[] {2, 8};
+  }
+
+  @Override
+  protected void setUp(final String variant, final int size, final int length) {
+    String shape = "";
+    if (variant.endsWith(SPARSE_SUFFIX) || variant.endsWith(REVERSIBLE_SUFFIX)) {
+      shape = variant.substring(variant.lastIndexOf('-'));
+    }
+    algorithm = MinimizationAlgorithm.valueOf(
+        variant.substring(0, variant.length() - shape.length()));
+
+    Random random = new Random(seed);
+    states = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      states.add(State.of("q" + i));
+    }
+    alphabet = new ArrayList<>();
+    for (int i = 0; i < length; i++) {
+      alphabet.add(Symbol.of("s" + i));
+    }
+    acceptableStates = new ArrayList<>();
+    transitionFunction = new HashMap<>();
+    if (shape.equals(REVERSIBLE_SUFFIX)) {
+      generateReversible(random);
+    } else {
+      generateWithEquivalentStates(random, shape.equals(SPARSE_SUFFIX));
+    }
+  }
+
+  /**
+   * Generates automaton in which about half of states are equivalent to some other state. States
+   * are divided into classes, and all states of a class have transitions to states of the same
+   * classes.
+   *
+   * @param random generator of automaton
+   * @param sparse <code>true</code> if only about one in {@link #SPARSE_DENSITY} transitions
+   *        should exist
+   */
+  private void generateWithEquivalentStates(final Random random, final boolean sparse) {
+    int size = states.size();
+    int length = alphabet.size();
+    int classes = Math.max(1, size / 2);
+    int[][] classTransitions = new int[classes][length];
+    boolean[] acceptableClasses = new boolean[classes];
+    for (int i = 0; i < classes; i++) {
+      for (int j = 0; j < length; j++) {
+        boolean missing = sparse && random.nextInt(SPARSE_DENSITY) != 0;
+        classTransitions[i][j] = missing ? -1 : random.nextInt(classes);
+      }
+      acceptableClasses[i] = random.nextBoolean();
+    }
+
+    for (int i = 0; i < size; i++) {
+      int stateClass = i % classes;
+      if (acceptableClasses[stateClass]) {
+        acceptableStates.add(states.get(i));
+      }
+      for (int j = 0; j < length; j++) {
+        int target = classTransitions[stateClass][j];
+        if (target < 0) {
+          continue;
+        }
+        if (target + classes < size && random.nextBoolean()) {
+          target += classes;
+        }
+        transitionFunction.put(new CommutativePair<>(states.get(i), alphabet.get(j)),
+            states.get(target));
+      }
+    }
+  }
+
+  /**
+   * Generates automaton whose every symbol permutes states and which has one acceptable state,
+   * so its reversal is also deterministic.
+   *
+   * @param random generator of automaton
+   */
+  private void generateReversible(final Random random) {
+    acceptableStates.add(states.get(0));
+    List<State> targets = new ArrayList<>(states);
+    for (Symbol symbol : alphabet) {
+      Collections.shuffle(targets, random);
+      for (int i = 0; i < states.size(); i++) {
+        transitionFunction.put(new CommutativePair<>(states.get(i), symbol), targets.get(i));
+      }
+    }
+  }
+
+  @Override
+  protected Object run() throws DFAException {
+    DFA dfa =
+        new DFA(new DFADefinition(states, alphabet, states.get(0), acceptableStates,
+            new HashMap<>(transitionFunction)));
+    return DFAMinimizer.minimize(dfa, algorithm);
+  }
+
+}
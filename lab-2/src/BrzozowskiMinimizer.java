@@ -0,0 +1,168 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds equivalent states of <i>Deterministic Finite Automaton</i> with <i>Brzozowski's</i>
+ * algorithm, which determinizes reversed automaton twice. First determinization gives automaton
+ * of reversed language whose states are sets of original states. Second one is done together
+ * with breadth-first search of original automaton, so that each original state gets state of
+ * minimal automaton reached by the same word, which is set of states of first automaton
+ * containing it. Two states are therefore equivalent if and only if they get the same state. <br>
+ * Number of states of first automaton can be exponential in number of original states, so this
+ * is practical only when reversed automaton has few reachable subsets of states. Missing
+ * transitions behave as transitions to an implicit unacceptable sink state.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+final class BrzozowskiMinimizer {
+
+  /**
+   * Disables creation of instances.
+   */
+  private BrzozowskiMinimizer() {}
+
+  /**
+   * Returns block of each state of given automaton, such that two states are in the same block if
+   * and only if they are equivalent. All states must be reachable from initial state.
+   * 
+   * @param dfa automaton whose equivalent states are found
+   * @return block of each state
+   */
+  static int[] findBlocks(final IndexedDFA dfa) {
+    int n = dfa.states.length;
+    int k = dfa.symbols.length;
+
+    int[] predecessorStart = dfa.getPredecessorStart();
+    int[] predecessors = dfa.getPredecessors();
+
+    // first determinization: subsets of original states, starting from acceptable states
+    List<BitSet> reversedStates = new ArrayList<>();
+    Map<BitSet, Integer> reversedIndex = new HashMap<>();
+    BitSet acceptable = new BitSet(n);
+    for (int state = 0; state < n; state++) {
+      if (dfa.acceptable[state]) {
+        acceptable.set(state);
+      }
+    }
+    addState(acceptable, reversedStates, reversedIndex);
+
+    int[] reversedTransitions = new int[16];
+    for (int current = 0; current < reversedStates.size(); current++) {
+      BitSet set = reversedStates.get(current);
+      if ((current + 1) * k > reversedTransitions.length) {
+        reversedTransitions = Arrays.copyOf(reversedTransitions, 2 * (current + 1) * k);
+      }
+      for (int symbol = 0; symbol < k; symbol++) {
+        BitSet reached = new BitSet(n);
+        for (int state = set.nextSetBit(0); state >= 0; state = set.nextSetBit(state + 1)) {
+          int index = symbol * n + state;
+          for (int i = predecessorStart[index]; i < predecessorStart[index + 1]; i++) {
+            reached.set(predecessors[i]);
+          }
+        }
+        reversedTransitions[current * k + symbol] =
+            addState(reached, reversedStates, reversedIndex);
+      }
+    }
+    int reversedCount = reversedStates.size();
+
+    // sources of transitions of first automaton, so that second one needs no subset scans
+    int[] sourceStart = new int[k * reversedCount + 1];
+    for (int reversed = 0; reversed < reversedCount; reversed++) {
+      for (int symbol = 0; symbol < k; symbol++) {
+        sourceStart[symbol * reversedCount + reversedTransitions[reversed * k + symbol] + 1]++;
+      }
+    }
+    for (int i = 1; i < sourceStart.length; i++) {
+      sourceStart[i] += sourceStart[i - 1];
+    }
+    int[] sources = new int[k * reversedCount];
+    int[] nextSource = Arrays.copyOf(sourceStart, sourceStart.length);
+    for (int reversed = 0; reversed < reversedCount; reversed++) {
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = reversedTransitions[reversed * k + symbol];
+        sources[nextSource[symbol * reversedCount + target]++] = reversed;
+      }
+    }
+
+    // second determinization, visiting original states with states reached by the same words
+    Map<BitSet, Integer> minimalIndex = new HashMap<>();
+    BitSet[] minimalState = new BitSet[n];
+    int[] blocks = new int[n];
+    int[] queue = new int[n];
+    int head = 0;
+    int tail = 0;
+    BitSet initial = new BitSet(reversedCount);
+    for (int reversed = 0; reversed < reversedCount; reversed++) {
+      if (reversedStates.get(reversed).get(dfa.initialState)) {
+        initial.set(reversed);
+      }
+    }
+    minimalState[dfa.initialState] = initial;
+    blocks[dfa.initialState] = addBlock(initial, minimalIndex);
+    queue[tail++] = dfa.initialState;
+
+    while (head < tail) {
+      int state = queue[head++];
+      BitSet set = minimalState[state];
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = dfa.transitions[state * k + symbol];
+        if (target < 0 || minimalState[target] != null) {
+          continue;
+        }
+        BitSet reached = new BitSet(reversedCount);
+        for (int reversed = set.nextSetBit(0); reversed >= 0;
+            reversed = set.nextSetBit(reversed + 1)) {
+          int index = symbol * reversedCount + reversed;
+          for (int i = sourceStart[index]; i < sourceStart[index + 1]; i++) {
+            reached.set(sources[i]);
+          }
+        }
+        minimalState[target] = reached;
+        blocks[target] = addBlock(reached, minimalIndex);
+        queue[tail++] = target;
+      }
+    }
+    return blocks;
+  }
+
+  /**
+   * Returns index of given state of first determinization, adding it if it is new.
+   * 
+   * @param set set of original states
+   * @param states states of first determinization in order of their indices
+   * @param index index of each state of first determinization
+   * @return index of given state
+   */
+  private static int addState(final BitSet set, final List<BitSet> states,
+      final Map<BitSet, Integer> index) {
+    Integer existing = index.get(set);
+    if (existing != null) {
+      return existing;
+    }
+    index.put(set, states.size());
+    states.add(set);
+    return states.size() - 1;
+  }
+
+  /**
+   * Returns block of given state of minimal automaton, adding new block if it is new.
+   * 
+   * @param set set of states of first determinization
+   * @param index block of each state of minimal automaton
+   * @return block of given state
+   */
+  private static int addBlock(final BitSet set, final Map<BitSet, Integer> index) {
+    Integer existing = index.get(set);
+    if (existing != null) {
+      return existing;
+    }
+    index.put(set, index.size());
+    return index.size() - 1;
+  }
+
+}
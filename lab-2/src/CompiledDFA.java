@@ -0,0 +1,415 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representation of <i>Deterministic Finite Automaton</i> whose transition function is a flat
+ * array indexed by state and symbol, and whose acceptable states are a bitset. Definition of
+ * automaton is translated once, when compiled automaton is created, so reading a symbol is only
+ * an array lookup and does not create objects, unlike {@link DFA#readSymbol(Symbol)} which looks
+ * up transition in a map. <br>
+ * Compiled automaton does not change when automaton from which it is created changes. It reads
+ * symbols in the same way as {@link DFA}: after a missing transition or a symbol which is not in
+ * its alphabet, automaton is not in any state.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class CompiledDFA {
+
+  /** Marks missing transition, unknown symbol and being in no state. */
+  static final int NONE = -1;
+
+  /** States of automaton in alphabetical order. */
+  final State[] states;
+
+  /** Symbols of automaton in alphabetical order. */
+  final Symbol[] symbols;
+
+  /**
+   * Index of state to which automaton goes from state <code>s</code> over symbol <code>a</code>,
+   * stored at <code>s * symbols.length + a</code>, or {@link #NONE} if there is no transition.
+   */
+  final int[] transitions;
+
+  /**
+   * Bitset of acceptable states, in which state <code>s</code> is bit <code>s % 64</code> of word
+   * <code>s / 64</code>.
+   */
+  final long[] acceptable;
+
+  /** Index of initial state. */
+  final int initialState;
+
+  /**
+   * Bitset of absorbing states, which go to themselves over every symbol of alphabet, in which
+   * state <code>s</code> is bit <code>s % 64</code> of word <code>s / 64</code>.
+   */
+  private final long[] absorbing;
+
+  /** Index of each symbol of automaton by id of symbol, or {@link #NONE} for other symbols. */
+  private final int[] symbolIndex;
+
+  /** Index of each state of automaton by id of state, or {@link #NONE} for other states. */
+  private final int[] stateIndex;
+
+  /** Index of current state, or {@link #NONE} if automaton is not in any state. */
+  private int currentState;
+
+  /**
+   * Compiles automaton with given definition.
+   * 
+   * @param dfaDefinition definition of automaton
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  public CompiledDFA(DFADefinition dfaDefinition) throws DFAException {
+    this(new DFA(dfaDefinition));
+  }
+
+  /**
+   * Compiles given automaton.
+   * 
+   * @param dfa automaton to compile
+   * @throws DFAException if given automaton is <code>null</code>
+   */
+  public CompiledDFA(DFA dfa) throws DFAException {
+    this(indexed(dfa));
+  }
+
+  /**
+   * Creates compiled automaton from array representation of automaton, whose arrays are shared.
+   * 
+   * @param dfa array representation of automaton
+   */
+  CompiledDFA(final IndexedDFA dfa) {
+    this(dfa.states, dfa.symbols, dfa.transitions, toBitset(dfa.acceptable), dfa.initialState);
+  }
+
+  /**
+   * Creates compiled automaton from given arrays, which are shared. States and symbols must be in
+   * alphabetical order and transitions must be indices of states or {@link #NONE}.
+   * 
+   * @param states states of automaton in alphabetical order
+   * @param symbols symbols of automaton in alphabetical order
+   * @param transitions index of state to which automaton goes from each state over each symbol
+   * @param acceptable bitset of acceptable states
+   * @param initialState index of initial state
+   */
+  CompiledDFA(final State[] states, final Symbol[] symbols, final int[] transitions,
+      final long[] acceptable, final int initialState) {
+    this.states = states;
+    this.symbols = symbols;
+    this.transitions = transitions;
+    this.acceptable = acceptable;
+    this.initialState = initialState;
+
+    int maxSymbolId = -1;
+    for (Symbol symbol : symbols) {
+      maxSymbolId = Math.max(maxSymbolId, symbol.getId());
+    }
+    symbolIndex = new int[maxSymbolId + 1];
+    Arrays.fill(symbolIndex, NONE);
+    for (int i = 0; i < symbols.length; i++) {
+      symbolIndex[symbols[i].getId()] = i;
+    }
+
+    int maxStateId = -1;
+    for (State state : states) {
+      maxStateId = Math.max(maxStateId, state.getId());
+    }
+    stateIndex = new int[maxStateId + 1];
+    Arrays.fill(stateIndex, NONE);
+    for (int i = 0; i < states.length; i++) {
+      stateIndex[states[i].getId()] = i;
+    }
+
+    absorbing = findAbsorbingStates(states.length, symbols.length, transitions);
+    currentState = initialState;
+  }
+
+  /**
+   * Returns bitset of states which go to themselves over every symbol.
+   * 
+   * @param n number of states
+   * @param k number of symbols
+   * @param transitions transition table
+   * @return bitset of absorbing states
+   */
+  private static long[] findAbsorbingStates(final int n, final int k, final int[] transitions) {
+    long[] absorbing = new long[(n + Long.SIZE - 1) / Long.SIZE];
+    for (int state = 0; state < n; state++) {
+      int symbol = 0;
+      while (symbol < k && transitions[state * k + symbol] == state) {
+        symbol++;
+      }
+      if (symbol == k) {
+        absorbing[state / Long.SIZE] |= 1L << state;
+      }
+    }
+    return absorbing;
+  }
+
+  /**
+   * Returns bitset in which bits of given array are set.
+   * 
+   * @param bits bits to set
+   * @return bitset of given bits
+   */
+  private static long[] toBitset(final boolean[] bits) {
+    long[] bitset = new long[(bits.length + Long.SIZE - 1) / Long.SIZE];
+    for (int i = 0; i < bits.length; i++) {
+      if (bits[i]) {
+        bitset[i / Long.SIZE] |= 1L << i;
+      }
+    }
+    return bitset;
+  }
+
+  /**
+   * Returns array representation of given automaton.
+   * 
+   * @param dfa automaton
+   * @return array representation of given automaton
+   * @throws DFAException if given automaton is <code>null</code>
+   */
+  private static IndexedDFA indexed(DFA dfa) throws DFAException {
+    if (dfa == null) {
+      throw new DFAException("DFA cannot be null");
+    }
+    return new IndexedDFA(dfa);
+  }
+
+  /**
+   * Reads symbol and returns state in which automaton will be after it reads given symbol.
+   * 
+   * @param symbol symbol to read
+   * @return state in which automaton will be after it reads given symbol, or <code>null</code> if
+   *         it is not in any state
+   * @throws DFAException if given symbol is <code>null</code>
+   */
+  public State readSymbol(Symbol symbol) throws DFAException {
+    if (symbol == null) {
+      throw new DFAException("symbol passed to DFA cannot be null");
+    }
+    if (currentState != NONE) {
+      currentState = next(currentState, indexOf(symbol));
+    }
+    return getCurrentState();
+  }
+
+  /**
+   * Reads sequence of symbols and returns state in which automaton will be after it reads given
+   * sequence. Current state is kept in a local variable while sequence is read, and each symbol
+   * is one lookup in array of its indices and one in transition table. As in
+   * {@link DFA#readSequence(List)}, reading stops as soon as automaton is not in any state.
+   * 
+   * @param sequence sequence of symbols for automaton to read
+   * @return state in which automaton will be after it reads given sequence, or <code>null</code>
+   *         if it is not in any state
+   * @throws DFAException if given sequence or some of its read symbols is <code>null</code>
+   */
+  public State readSequence(List<Symbol> sequence) throws DFAException {
+    if (sequence == null) {
+      throw new DFAException("sequence passed to DFA cannot be null");
+    }
+    int state = currentState;
+    int k = symbols.length;
+    for (Symbol symbol : sequence) {
+      if (state == NONE) {
+        break;
+      }
+      if (symbol == null) {
+        currentState = state;
+        throw new DFAException("symbol passed to DFA cannot be null");
+      }
+      int index = indexOf(symbol);
+      state = index == NONE ? NONE : transitions[state * k + index];
+    }
+    currentState = state;
+    return getCurrentState();
+  }
+
+  /**
+   * Reads given sequence of symbols until it is decided whether automaton accepts it, and returns
+   * number of symbols read. Automaton accepts the whole sequence if and only if it is left in
+   * acceptable state. Reading stops when automaton is not in any state, as in
+   * {@link #readSequence(List)}, or when it enters unacceptable absorbing state, which goes to
+   * itself over every symbol of alphabet and can therefore never accept again. <br>
+   * Acceptable absorbing state is left only by symbol which is not in alphabet, so after it is
+   * entered following symbols are only looked up in alphabet, until such symbol is found.
+   * Absorbing states are found once, when compiled automaton is created. Symbols which are not
+   * read are not checked to be <code>null</code>.
+   * 
+   * @param sequence sequence of symbols for automaton to read
+   * @return number of symbols read before acceptance of sequence was decided
+   * @throws DFAException if given sequence or some of its read symbols is <code>null</code>
+   */
+  public int readUntilDecided(List<Symbol> sequence) throws DFAException {
+    if (sequence == null) {
+      throw new DFAException("sequence passed to DFA cannot be null");
+    }
+    int state = currentState;
+    int k = symbols.length;
+    int read = 0;
+    for (Symbol symbol : sequence) {
+      if (state == NONE || isAbsorbing(state)) {
+        break;
+      }
+      if (symbol == null) {
+        currentState = state;
+        throw new DFAException("symbol passed to DFA cannot be null");
+      }
+      int index = indexOf(symbol);
+      state = index == NONE ? NONE : transitions[state * k + index];
+      read++;
+    }
+    if (state != NONE && isAcceptable(state)) {
+      for (Symbol symbol : sequence.subList(read, sequence.size())) {
+        if (symbol == null) {
+          currentState = state;
+          throw new DFAException("symbol passed to DFA cannot be null");
+        }
+        read++;
+        if (indexOf(symbol) == NONE) {
+          state = NONE;
+          break;
+        }
+      }
+    }
+    currentState = state;
+    return read;
+  }
+
+  /**
+   * Resets automaton.
+   * 
+   * @return returns current state (initial state) after reset
+   */
+  public State reset() {
+    currentState = initialState;
+    return getCurrentState();
+  }
+
+  /**
+   * Checks if given state is acceptable state of this automaton.
+   * 
+   * @param state state for which you want to check if it is acceptable by this automaton
+   * @return <code>true</code> if given state is acceptable by this automaton, <code>false</code>
+   *         otherwise
+   * @throws DFAException if given state is <code>null</code>
+   */
+  public boolean isAcceptable(State state) throws DFAException {
+    if (state == null) {
+      throw new DFAException("state cannot be null");
+    }
+    int id = state.getId();
+    return id < stateIndex.length && stateIndex[id] != NONE && isAcceptable(stateIndex[id]);
+  }
+
+  /**
+   * Returns current state of this automaton.
+   * 
+   * @return current state of this automaton, or <code>null</code> if it is not in any state
+   */
+  public State getCurrentState() {
+    return currentState == NONE ? null : states[currentState];
+  }
+
+  /**
+   * Return initial state of this automaton.
+   * 
+   * @return initial state of this automaton
+   */
+  public State getInitialState() {
+    return states[initialState];
+  }
+
+  /**
+   * Returns new automaton with the same states, alphabet, initial state, acceptable states and
+   * transitions as this automaton.
+   * 
+   * @return automaton equal to this automaton
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  public DFA toDFA() throws DFAException {
+    List<State> acceptableStates = new ArrayList<>();
+    Map<CommutativePair<State, Symbol>, State> transitionFunction = new HashMap<>();
+    int k = symbols.length;
+    for (int state = 0; state < states.length; state++) {
+      if (isAcceptable(state)) {
+        acceptableStates.add(states[state]);
+      }
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = transitions[state * k + symbol];
+        if (target != NONE) {
+          transitionFunction.put(new CommutativePair<>(states[state], symbols[symbol]),
+              states[target]);
+        }
+      }
+    }
+    return new DFA(new DFADefinition(Arrays.asList(states), Arrays.asList(symbols),
+        states[initialState], acceptableStates, transitionFunction));
+  }
+
+  /**
+   * Returns number of states of this automaton.
+   * 
+   * @return number of states of this automaton
+   */
+  public int getStateCount() {
+    return states.length;
+  }
+
+  /**
+   * Returns size of alphabet of this automaton.
+   * 
+   * @return size of alphabet of this automaton
+   */
+  public int getAlphabetSize() {
+    return symbols.length;
+  }
+
+  /**
+   * Returns <code>true</code> if state with given index is acceptable.
+   * 
+   * @param state index of state
+   * @return <code>true</code> if state is acceptable
+   */
+  boolean isAcceptable(final int state) {
+    return (acceptable[state / Long.SIZE] & 1L << state) != 0;
+  }
+
+  /**
+   * Returns <code>true</code> if state with given index goes to itself over every symbol.
+   * 
+   * @param state index of state
+   * @return <code>true</code> if state is absorbing
+   */
+  boolean isAbsorbing(final int state) {
+    return (absorbing[state / Long.SIZE] & 1L << state) != 0;
+  }
+
+  /**
+   * Returns index of given symbol in alphabet of this automaton.
+   * 
+   * @param symbol symbol
+   * @return index of given symbol, or {@link #NONE} if it is not in alphabet
+   */
+  int indexOf(final Symbol symbol) {
+    int id = symbol.getId();
+    return id < symbolIndex.length ? symbolIndex[id] : NONE;
+  }
+
+  /**
+   * Returns index of state to which automaton goes from given state over given symbol.
+   * 
+   * @param state index of state
+   * @param symbol index of symbol, or {@link #NONE}
+   * @return index of next state, or {@link #NONE} if there is no transition
+   */
+  int next(final int state, final int symbol) {
+    return symbol == NONE ? NONE : transitions[state * symbols.length + symbol];
+  }
+
+}
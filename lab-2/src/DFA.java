@@ -58,24 +58,32 @@ public final class DFA {
     if (symbol == null) {
       throw new DFAException("symbol passed to DFA cannot be null");
     }
-    currentState = transitionFunction.get(new CommutativePair<>(currentState, symbol));
+    if (currentState != null) {
+      currentState = transitionFunction.get(new CommutativePair<>(currentState, symbol));
+    }
     return currentState;
   }
 
   /**
    * Reads sequence of symbols and returns state in which automaton will be after it reads given
-   * sequence.
+   * sequence. Reading stops as soon as automaton is not in any state, since it can not leave
+   * that, so the rest of sequence is not read. Automaton minimized with
+   * {@link DeadStateHandling#REMOVE} is not in any state as soon as it enters a dead state.
+   * {@link CompiledDFA#readUntilDecided(List)} also stops in absorbing states and tells how many
+   * symbols were read.
    * 
    * @param sequence sequence of symbols for automaton to read
    * @return state in which automaton will be after it reads given sequence
-   * @throws DFAException if given sequence is <code>null</code>
+   * @throws DFAException if given sequence or some of its read symbols is <code>null</code>
    */
   public State readSequence(List<Symbol> sequence) throws DFAException {
     if (sequence == null) {
       throw new DFAException("sequence passed to DFA cannot be null");
     }
     for (Symbol symbol : sequence) {
-      readSymbol(symbol);
+      if (readSymbol(symbol) == null) {
+        break;
+      }
     }
     return currentState;
   }
@@ -0,0 +1,225 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary format of {@link CompiledDFA}, which is loaded much faster than text format of
+ * {@link DFADefinition}, because its transition table is read in one bulk copy. All numbers are
+ * big-endian. File consists of:
+ * <ul>
+ * <li>magic number {@link #MAGIC} and version {@link #VERSION}</li>
+ * <li>number of states, number of symbols and index of initial state</li>
+ * <li>name table: names of states and then names of symbols, in alphabetical order, each as
+ * length in bytes followed by <i>UTF-8</i> bytes, padded with zeros to multiple of 8 bytes</li>
+ * <li>transition table: for each state and then each symbol, index of target state or
+ * <code>-1</code> if there is no transition</li>
+ * <li>acceptance bitset: words of 64 bits, in which state <code>s</code> is bit
+ * <code>s % 64</code> of word <code>s / 64</code>, and bits above the last state are zero</li>
+ * </ul>
+ * File is loaded by memory-mapping it. Only names are turned into objects, so loading takes time
+ * linear in size of file, without creating objects per transition. Sizes in header are checked
+ * against size of file before any table is allocated.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class DFABinaryFormat {
+
+  /** First four bytes of every file, <code>DFAB</code> in <i>ASCII</i>. */
+  public static final int MAGIC = 0x44464142;
+
+  /** Version of format which is written and the only version which is read. */
+  public static final int VERSION = 1;
+
+  /** Name table is padded to multiple of this number of bytes, so tables are aligned. */
+  private static final int ALIGNMENT = 8;
+
+  /**
+   * Disables creation of instances.
+   */
+  private DFABinaryFormat() {}
+
+  /**
+   * Writes given automaton to file with given path, replacing file if it exists.
+   * 
+   * @param dfa automaton to write
+   * @param path path of file
+   * @throws IOException if I/O error occurs
+   */
+  public static void write(CompiledDFA dfa, Path path) throws IOException {
+    try (OutputStream stream = Files.newOutputStream(path)) {
+      write(dfa, stream);
+    }
+  }
+
+  /**
+   * Writes given automaton to given stream. Stream is flushed, but not closed.
+   * 
+   * @param dfa automaton to write
+   * @param stream stream to which automaton is written
+   * @throws IOException if I/O error occurs
+   */
+  public static void write(CompiledDFA dfa, OutputStream stream) throws IOException {
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(dfa.states.length);
+    output.writeInt(dfa.symbols.length);
+    output.writeInt(dfa.initialState);
+
+    for (State state : dfa.states) {
+      writeName(output, state.getName());
+    }
+    for (Symbol symbol : dfa.symbols) {
+      writeName(output, symbol.getName());
+    }
+    while (output.size() % ALIGNMENT != 0) {
+      output.writeByte(0);
+    }
+
+    for (int target : dfa.transitions) {
+      output.writeInt(target);
+    }
+    for (long word : dfa.acceptable) {
+      output.writeLong(word);
+    }
+    output.flush();
+  }
+
+  /**
+   * Writes name as its length in bytes followed by its <i>UTF-8</i> bytes.
+   * 
+   * @param output output to which name is written
+   * @param name name to write
+   * @throws IOException if I/O error occurs
+   */
+  private static void writeName(DataOutputStream output, String name) throws IOException {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Loads automaton from file with given path by memory-mapping it.
+   * 
+   * @param path path of file
+   * @return loaded automaton
+   * @throws IOException if I/O error occurs
+   * @throws DFAException if file is not valid automaton in this format
+   */
+  public static CompiledDFA read(Path path) throws IOException, DFAException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return read(buffer);
+    }
+  }
+
+  /**
+   * Loads automaton from given buffer, starting at its position. Byte order of buffer is set to
+   * big-endian.
+   * 
+   * @param buffer buffer which contains automaton
+   * @return loaded automaton
+   * @throws DFAException if buffer does not contain valid automaton in this format
+   */
+  public static CompiledDFA read(ByteBuffer buffer) throws DFAException {
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    try {
+      int start = buffer.position();
+      if (buffer.getInt() != MAGIC) {
+        throw new DFAException("not a binary DFA file");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new DFAException("unsupported binary DFA version " + version);
+      }
+      int stateCount = buffer.getInt();
+      int symbolCount = buffer.getInt();
+      int initialState = buffer.getInt();
+      if (stateCount <= 0 || symbolCount < 0
+          || (long) stateCount * symbolCount > Integer.MAX_VALUE) {
+        throw new DFAException("invalid size of binary DFA");
+      }
+      // every name takes at least its length, so sizes are checked before arrays are allocated
+      long nameBytes = (long) (stateCount + symbolCount) * Integer.BYTES;
+      long tableBytes = (long) stateCount * symbolCount * Integer.BYTES;
+      long bitsetBytes = (long) (stateCount + Long.SIZE - 1) / Long.SIZE * Long.BYTES;
+      if (nameBytes + tableBytes + bitsetBytes > buffer.remaining()) {
+        throw new DFAException("binary DFA is truncated");
+      }
+      if (initialState < 0 || initialState >= stateCount) {
+        throw new DFAException("initial state must be in set of all states");
+      }
+
+      State[] states = new State[stateCount];
+      for (int i = 0; i < stateCount; i++) {
+        String name = readName(buffer);
+        if (name.isEmpty()) { // only epsilon symbol has empty name
+          throw new DFAException("state of binary DFA must have name");
+        }
+        states[i] = State.of(name);
+        if (i > 0 && states[i - 1].compareTo(states[i]) >= 0) {
+          throw new DFAException("states of binary DFA must be sorted and unique");
+        }
+      }
+      Symbol[] symbols = new Symbol[symbolCount];
+      for (int i = 0; i < symbolCount; i++) {
+        symbols[i] = Symbol.of(readName(buffer));
+        if (i > 0 && symbols[i - 1].compareTo(symbols[i]) >= 0) {
+          throw new DFAException("symbols of binary DFA must be sorted and unique");
+        }
+      }
+      while ((buffer.position() - start) % ALIGNMENT != 0) {
+        buffer.get();
+      }
+
+      int[] transitions = new int[stateCount * symbolCount];
+      buffer.asIntBuffer().get(transitions);
+      buffer.position(buffer.position() + transitions.length * Integer.BYTES);
+      for (int target : transitions) {
+        if (target < CompiledDFA.NONE || target >= stateCount) {
+          throw new DFAException("transition of binary DFA goes to unknown state");
+        }
+      }
+
+      long[] acceptable = new long[(stateCount + Long.SIZE - 1) / Long.SIZE];
+      buffer.asLongBuffer().get(acceptable);
+      buffer.position(buffer.position() + acceptable.length * Long.BYTES);
+      if (stateCount % Long.SIZE != 0
+          && acceptable[acceptable.length - 1] >>> (stateCount % Long.SIZE) != 0) {
+        throw new DFAException("acceptable state of binary DFA is unknown state");
+      }
+
+      return new CompiledDFA(states, symbols, transitions, acceptable, initialState);
+    } catch (BufferUnderflowException e) {
+      throw new DFAException("binary DFA is truncated", e);
+    }
+  }
+
+  /**
+   * Reads name written by {@link #writeName(DataOutputStream, String)}.
+   * 
+   * @param buffer buffer from which name is read
+   * @return read name
+   * @throws DFAException if length of name is invalid
+   */
+  private static String readName(ByteBuffer buffer) throws DFAException {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new DFAException("invalid length of name in binary DFA");
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
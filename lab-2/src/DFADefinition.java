@@ -119,6 +119,22 @@ public final class DFADefinition {
     writeCollection(stream, acceptableStates.toArray());
   }
 
+  /**
+   * Reads <i>DFA</i> definition from given <code>inputStream</code> with
+   * {@link DFADefinitionParser}, which accepts the same format as
+   * {@link #DFADefinition(InputStream)}, but reads input in one pass and reports line and column
+   * of errors.
+   * 
+   * @param inputStream input stream from which to read definition
+   * @return read definition
+   * @throws IOException if I/O error occurs
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  public static DFADefinition parse(final InputStream inputStream) throws IOException,
+      DFAException {
+    return DFADefinitionParser.parse(inputStream);
+  }
+
   /**
    * Writes transition function with given print stream.
    * 
@@ -277,7 +293,7 @@ public final class DFADefinition {
       return states;
     }
     for (String state : line.split(",")) {
-      states.add(new State(state));
+      states.add(State.of(state));
     }
     return states;
   }
@@ -292,7 +308,7 @@ public final class DFADefinition {
   private Set<Symbol> readAlphabet(final BufferedReader reader) throws IOException {
     Set<Symbol> alphabet = new TreeSet<>();
     for (String symbol : reader.readLine().split(",")) {
-      alphabet.add(new Symbol(symbol));
+      alphabet.add(Symbol.of(symbol));
     }
     return alphabet;
   }
@@ -305,7 +321,7 @@ public final class DFADefinition {
    * @throws IOException if I/O error occurs
    */
   private State readInitialState(final BufferedReader reader) throws IOException {
-    return new State(reader.readLine());
+    return State.of(reader.readLine());
   }
 
   /**
@@ -331,9 +347,9 @@ public final class DFADefinition {
     Map<CommutativePair<State, Symbol>, State> transitionFunction = new HashMap<>();
     String transition;
     while ((transition = reader.readLine()) != null && !transition.isEmpty()) {
-      State state = new State(transition.split("->")[0].split(",")[0]);
-      Symbol symbol = new Symbol(transition.split("->")[0].split(",")[1]);
-      transitionFunction.put(new CommutativePair<>(state, symbol), new State(
+      State state = State.of(transition.split("->")[0].split(",")[0]);
+      Symbol symbol = Symbol.of(transition.split("->")[0].split(",")[1]);
+      transitionFunction.put(new CommutativePair<>(state, symbol), State.of(
           transition.split("->")[1]));
     }
     return transitionFunction;
@@ -0,0 +1,481 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser of text format of {@link DFADefinition}, which reads input bytes once, without splitting
+ * lines into strings. Format consists of lines with:
+ * <ol>
+ * <li>states separated by commas</li>
+ * <li>symbols of alphabet separated by commas</li>
+ * <li>acceptable states separated by commas</li>
+ * <li>initial state</li>
+ * <li>transitions, one per line, as <code>state,symbol-&gt;state</code>, until end of input or
+ * empty line</li>
+ * </ol>
+ * Lists are read in the same way as with {@link String#split(String)}, so empty names at the end
+ * of a list are ignored, and an empty list of states is empty, while an empty alphabet contains
+ * <i>epsilon</i>. Names of states cannot be empty. Lines end with <code>\n</code>,
+ * <code>\r</code> or <code>\r\n</code>, and names are decoded as <i>UTF-8</i>. <br>
+ * Names are interned as they are read: bytes of each name are looked up in a table of names seen
+ * so far, so a name which repeats creates no objects. Input which is not in this format is
+ * reported with {@link DFAException} whose message starts with line and column of the error.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+final class DFADefinitionParser {
+
+  /** Size of buffer into which input is read. */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** Marks end of input. */
+  private static final int END = -1;
+
+  /** Stream from which input is read. */
+  private final InputStream inputStream;
+
+  /** Buffer of input. */
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+
+  /** Position of next byte in {@link #buffer}. */
+  private int position;
+
+  /** Number of bytes in {@link #buffer}. */
+  private int limit;
+
+  /** Line of next byte, starting from 1. */
+  private int line = 1;
+
+  /** Column of next byte, counted in characters and starting from 1. */
+  private int column = 1;
+
+  /** Bytes of name which is being read. */
+  private byte[] name = new byte[64];
+
+  /** Number of bytes of name which is being read. */
+  private int nameLength;
+
+  /** States which are already read, by bytes of their names. */
+  private final NameTable states = new NameTable();
+
+  /** Symbols which are already read, by bytes of their names. */
+  private final NameTable symbols = new NameTable();
+
+  /**
+   * Creates parser which reads given stream.
+   * 
+   * @param inputStream stream from which input is read
+   */
+  private DFADefinitionParser(final InputStream inputStream) {
+    this.inputStream = inputStream;
+  }
+
+  /**
+   * Reads <i>DFA</i> definition from given stream. Stream is read until the end of transitions.
+   * 
+   * @param inputStream stream from which definition is read
+   * @return read definition
+   * @throws IOException if I/O error occurs
+   * @throws DFAException if input is not valid definition
+   */
+  static DFADefinition parse(final InputStream inputStream) throws IOException, DFAException {
+    if (inputStream == null) {
+      throw new DFAException("input stream cannot be null");
+    }
+    return new DFADefinitionParser(inputStream).parse();
+  }
+
+  /**
+   * Reads definition.
+   * 
+   * @return read definition
+   * @throws IOException if I/O error occurs
+   * @throws DFAException if input is not valid definition
+   */
+  private DFADefinition parse() throws IOException, DFAException {
+    List<State> stateList = readStates("states");
+    List<Symbol> alphabet = readAlphabet();
+    List<State> acceptableStates = readStates("acceptable states");
+
+    expectLine("initial state");
+    readName(false);
+    if (nameLength == 0) {
+      throw error("expected initial state");
+    }
+    State initialState = state();
+    endLine();
+
+    Map<CommutativePair<State, Symbol>, State> transitionFunction = new HashMap<>();
+    while (peek() != END && !isLineEnd(peek())) {
+      readName(true);
+      if (nameLength == 0) {
+        throw error("expected state of transition");
+      }
+      State state = state();
+      if (peek() != ',') {
+        throw error("expected ',' after state of transition");
+      }
+      next();
+
+      readName(true);
+      if (nameLength == 0) {
+        throw error("expected symbol of transition");
+      }
+      if (!isArrow()) {
+        throw error("expected '->' after symbol of transition");
+      }
+      Symbol symbol = symbol();
+      next();
+      next();
+
+      readName(true);
+      if (nameLength == 0) {
+        throw error("expected target state of transition");
+      }
+      transitionFunction.put(new CommutativePair<>(state, symbol), state());
+      endLine();
+    }
+
+    return new DFADefinition(stateList, alphabet, initialState, acceptableStates,
+        transitionFunction);
+  }
+
+  /**
+   * Reads line with states separated by commas. Empty line has no states.
+   * 
+   * @param description description of line for error messages
+   * @return read states
+   * @throws IOException if I/O error occurs
+   * @throws DFAException if line is missing or some state before the last one is empty
+   */
+  private List<State> readStates(final String description) throws IOException, DFAException {
+    expectLine(description);
+    List<State> list = new ArrayList<>();
+    int emptyColumn = 0; // empty names after the last non-empty one are ignored, as by split
+    while (!isLineEnd(peek()) && peek() != END) {
+      int nameColumn = column;
+      readName(false, ',');
+      if (nameLength == 0) {
+        emptyColumn = emptyColumn == 0 ? nameColumn : emptyColumn;
+      } else if (emptyColumn != 0) {
+        column = emptyColumn;
+        throw error("expected state");
+      } else {
+        list.add(state());
+      }
+      if (peek() != ',') {
+        break;
+      }
+      next();
+    }
+    endLine();
+    return list;
+  }
+
+  /**
+   * Reads line with symbols separated by commas. Empty line has only <i>epsilon</i>.
+   * 
+   * @return read symbols
+   * @throws IOException if I/O error occurs
+   * @throws DFAException if line is missing
+   */
+  private List<Symbol> readAlphabet() throws IOException, DFAException {
+    expectLine("alphabet");
+    List<Symbol> list = new ArrayList<>();
+    if (isLineEnd(peek())) {
+      endLine();
+      list.add(Symbol.of(""));
+      return list;
+    }
+    int nonEmpty = 0; // empty names after the last non-empty one are removed, as by split
+    while (true) {
+      readName(false, ',');
+      list.add(nameLength == 0 ? null : symbol());
+      if (nameLength > 0) {
+        nonEmpty = list.size();
+      }
+      if (peek() != ',') {
+        break;
+      }
+      next();
+    }
+    endLine();
+    list.subList(nonEmpty, list.size()).clear();
+    if (list.contains(null)) {
+      Collections.replaceAll(list, null, Symbol.of(""));
+    }
+    return list;
+  }
+
+  /**
+   * Reads name into {@link #name} until end of line or given byte.
+   * 
+   * @param stopAtArrow <code>true</code> if name also ends before <code>-&gt;</code>
+   * @param stop byte at which name ends
+   * @throws IOException if I/O error occurs
+   */
+  private void readName(final boolean stopAtArrow, final int stop) throws IOException {
+    nameLength = 0;
+    int b;
+    while ((b = peek()) != END && !isLineEnd(b) && b != stop && !(stopAtArrow && isArrow())) {
+      if (nameLength == name.length) {
+        name = Arrays.copyOf(name, 2 * name.length);
+      }
+      name[nameLength++] = (byte) b;
+      next();
+    }
+  }
+
+  /**
+   * Reads name into {@link #name} until end of line, or until comma or <code>-&gt;</code> if
+   * name is part of transition.
+   * 
+   * @param transition <code>true</code> if name is part of transition
+   * @throws IOException if I/O error occurs
+   */
+  private void readName(final boolean transition) throws IOException {
+    readName(transition, transition ? ',' : END);
+  }
+
+  /**
+   * Returns state whose name was read last.
+   * 
+   * @return state with read name
+   */
+  private State state() {
+    Object state = states.get(name, nameLength);
+    if (state == null) {
+      state = State.of(new String(name, 0, nameLength, StandardCharsets.UTF_8));
+      states.put(name, nameLength, state);
+    }
+    return (State) state;
+  }
+
+  /**
+   * Returns symbol whose name was read last.
+   * 
+   * @return symbol with read name
+   */
+  private Symbol symbol() {
+    Object symbol = symbols.get(name, nameLength);
+    if (symbol == null) {
+      symbol = Symbol.of(new String(name, 0, nameLength, StandardCharsets.UTF_8));
+      symbols.put(name, nameLength, symbol);
+    }
+    return (Symbol) symbol;
+  }
+
+  /**
+   * Checks that input has another line.
+   * 
+   * @param description description of line for error message
+   * @throws IOException if I/O error occurs
+   * @throws DFAException if input has ended
+   */
+  private void expectLine(final String description) throws IOException, DFAException {
+    if (peek() == END) {
+      throw error("unexpected end of input, expected line with " + description);
+    }
+  }
+
+  /**
+   * Reads end of line, which is end of input, <code>\n</code>, <code>\r</code> or
+   * <code>\r\n</code>.
+   * 
+   * @throws IOException if I/O error occurs
+   * @throws DFAException if line has not ended
+   */
+  private void endLine() throws IOException, DFAException {
+    int b = peek();
+    if (b == END) {
+      return;
+    }
+    if (!isLineEnd(b)) {
+      throw error("unexpected '" + (char) b + "', expected end of line");
+    }
+    next();
+    if (b == '\r' && peek() == '\n') {
+      position++;
+    }
+    line++;
+    column = 1;
+  }
+
+  /**
+   * Returns <code>true</code> if given byte ends line.
+   * 
+   * @param b byte
+   * @return <code>true</code> if given byte ends line
+   */
+  private static boolean isLineEnd(final int b) {
+    return b == '\n' || b == '\r';
+  }
+
+  /**
+   * Returns <code>true</code> if next bytes are <code>-&gt;</code>.
+   * 
+   * @return <code>true</code> if next bytes are arrow
+   * @throws IOException if I/O error occurs
+   */
+  private boolean isArrow() throws IOException {
+    if (peek() != '-') {
+      return false;
+    }
+    if (position + 1 == limit) { // keeps '-' in buffer, so both bytes are available
+      buffer[0] = '-';
+      position = 0;
+      limit = 1;
+      int read = inputStream.read(buffer, 1, buffer.length - 1);
+      if (read > 0) {
+        limit += read;
+      }
+    }
+    return position + 1 < limit && buffer[position + 1] == '>';
+  }
+
+  /**
+   * Returns next byte without reading it.
+   * 
+   * @return next byte, or {@link #END} at the end of input
+   * @throws IOException if I/O error occurs
+   */
+  private int peek() throws IOException {
+    if (position == limit) {
+      int read = inputStream.read(buffer);
+      if (read <= 0) {
+        position = 0;
+        limit = 0;
+        return END;
+      }
+      position = 0;
+      limit = read;
+    }
+    return buffer[position] & 0xFF;
+  }
+
+  /**
+   * Reads next byte, which must be already peeked and must not end line, and moves to next column
+   * unless byte continues a character.
+   */
+  private void next() {
+    if ((buffer[position++] & 0xC0) != 0x80) {
+      column++;
+    }
+  }
+
+  /**
+   * Returns exception with given message, preceded by current line and column.
+   * 
+   * @param message description of error
+   * @return exception which describes error
+   */
+  private DFAException error(final String message) {
+    return new DFAException("line " + line + ", column " + column + ": " + message);
+  }
+
+  /**
+   * Hash table which maps bytes of names to objects with those names, so that repeated names do
+   * not have to be decoded into strings.
+   */
+  private static final class NameTable {
+
+    /** Bytes of name in each slot, or <code>null</code> if slot is empty. */
+    private byte[][] keys = new byte[64][];
+
+    /** Object in each slot. */
+    private Object[] values = new Object[64];
+
+    /** Number of names in table. */
+    private int size;
+
+    /**
+     * Returns object with given name, or <code>null</code> if it is not in table.
+     * 
+     * @param bytes bytes of name, followed by other bytes
+     * @param length number of bytes of name
+     * @return object with given name, or <code>null</code>
+     */
+    private Object get(final byte[] bytes, final int length) {
+      int mask = keys.length - 1;
+      for (int slot = hash(bytes, length) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+        if (matches(keys[slot], bytes, length)) {
+          return values[slot];
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Adds object with given name, which is not in table.
+     * 
+     * @param bytes bytes of name, followed by other bytes
+     * @param length number of bytes of name
+     * @param value object with given name
+     */
+    private void put(final byte[] bytes, final int length, final Object value) {
+      if (2 * (size + 1) > keys.length) {
+        byte[][] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new byte[2 * oldKeys.length][];
+        values = new Object[2 * oldKeys.length];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+          if (oldKeys[i] != null) {
+            put(oldKeys[i], oldKeys[i].length, oldValues[i]);
+          }
+        }
+      }
+      int mask = keys.length - 1;
+      int slot = hash(bytes, length) & mask;
+      while (keys[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = Arrays.copyOf(bytes, length);
+      values[slot] = value;
+      size++;
+    }
+
+    /**
+     * Returns hash of given name.
+     * 
+     * @param bytes bytes of name, followed by other bytes
+     * @param length number of bytes of name
+     * @return hash of name
+     */
+    private static int hash(final byte[] bytes, final int length) {
+      int hash = 0;
+      for (int i = 0; i < length; i++) {
+        hash = 31 * hash + bytes[i];
+      }
+      return hash ^ hash >>> 16;
+    }
+
+    /**
+     * Returns <code>true</code> if given key is equal to given name.
+     * 
+     * @param key bytes of key
+     * @param bytes bytes of name, followed by other bytes
+     * @param length number of bytes of name
+     * @return <code>true</code> if key is equal to name
+     */
+    private static boolean matches(final byte[] key, final byte[] bytes, final int length) {
+      if (key.length != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (key[i] != bytes[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
+}
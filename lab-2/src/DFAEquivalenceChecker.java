@@ -0,0 +1,249 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks if two <i>Deterministic Finite Automata</i> accept the same language with algorithm of
+ * <i>Hopcroft and Karp</i>, without minimizing either of them. States of both automata are kept
+ * in one union-find structure. Starting from pair of initial states, each pair of states which is
+ * not already in the same set is checked to be both acceptable or both unacceptable, and then
+ * their sets are joined and pairs of their successors over every symbol are added to queue. <br>
+ * Every join decreases number of sets, so at most <i>n<sub>1</sub> + n<sub>2</sub></i> pairs
+ * have successors, and check takes almost linear time in number of states times size of
+ * alphabet. Pairs are visited in breadth-first order, so the first pair found whose states differ
+ * in acceptance is reached by a shortest word which is accepted by exactly one automaton. <br>
+ * Symbols of both alphabets are used. Missing transitions and symbols which are not in alphabet
+ * of automaton lead to an implicit sink state, which is shared by both automata and accepts
+ * nothing, as in {@link DFA#readSymbol(Symbol)}.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class DFAEquivalenceChecker {
+
+  /**
+   * Disables creation of instances.
+   */
+  private DFAEquivalenceChecker() {}
+
+  /**
+   * Returns <code>true</code> if given automata accept the same language.
+   * 
+   * @param first first automaton
+   * @param second second automaton
+   * @return <code>true</code> if given automata accept the same language
+   * @throws DFAException if some of given automata is <code>null</code>
+   */
+  public static boolean areEquivalent(DFA first, DFA second) throws DFAException {
+    return findCounterexample(first, second) == null;
+  }
+
+  /**
+   * Returns a shortest sequence of symbols which is accepted by exactly one of given automata.
+   * 
+   * @param first first automaton
+   * @param second second automaton
+   * @return shortest sequence accepted by exactly one automaton, or <code>null</code> if automata
+   *         accept the same language
+   * @throws DFAException if some of given automata is <code>null</code>
+   */
+  public static List<Symbol> findCounterexample(DFA first, DFA second) throws DFAException {
+    return findCounterexample(new CompiledDFA(first), new CompiledDFA(second));
+  }
+
+  /**
+   * Returns <code>true</code> if given compiled automata accept the same language.
+   * 
+   * @param first first automaton
+   * @param second second automaton
+   * @return <code>true</code> if given automata accept the same language
+   * @throws DFAException if some of given automata is <code>null</code>
+   */
+  public static boolean areEquivalent(CompiledDFA first, CompiledDFA second)
+      throws DFAException {
+    return findCounterexample(first, second) == null;
+  }
+
+  /**
+   * Returns a shortest sequence of symbols which is accepted by exactly one of given compiled
+   * automata.
+   * 
+   * @param first first automaton
+   * @param second second automaton
+   * @return shortest sequence accepted by exactly one automaton, or <code>null</code> if automata
+   *         accept the same language
+   * @throws DFAException if some of given automata is <code>null</code>
+   */
+  public static List<Symbol> findCounterexample(CompiledDFA first, CompiledDFA second)
+      throws DFAException {
+    if (first == null || second == null) {
+      throw new DFAException("DFA cannot be null");
+    }
+
+    Symbol[] symbols = mergeAlphabets(first.symbols, second.symbols);
+    int k = symbols.length;
+    int firstCount = first.states.length;
+    int secondCount = second.states.length;
+    int sink = firstCount + secondCount;
+    int nodeCount = sink + 1;
+
+    // states of second automaton follow states of first one, and sink is the last
+    int[] transitions = new int[nodeCount * k];
+    Arrays.fill(transitions, sink);
+    boolean[] acceptable = new boolean[nodeCount];
+    addTransitions(first, symbols, 0, sink, transitions, acceptable);
+    addTransitions(second, symbols, firstCount, sink, transitions, acceptable);
+
+    int[] parent = new int[nodeCount];
+    int[] size = new int[nodeCount];
+    for (int node = 0; node < nodeCount; node++) {
+      parent[node] = node;
+      size[node] = 1;
+    }
+
+    // pairs in order of breadth-first search, with pair and symbol from which each was reached
+    int capacity = Math.max(16, nodeCount);
+    int[] firstNodes = new int[capacity];
+    int[] secondNodes = new int[capacity];
+    int[] previousPairs = new int[capacity];
+    int[] pairSymbols = new int[capacity];
+    int head = 0;
+    int tail = 0;
+    firstNodes[tail] = first.initialState;
+    secondNodes[tail] = firstCount + second.initialState;
+    previousPairs[tail] = -1;
+    pairSymbols[tail] = -1;
+    tail++;
+
+    while (head < tail) {
+      int pair = head++;
+      int firstNode = firstNodes[pair];
+      int secondNode = secondNodes[pair];
+      int firstRoot = find(parent, firstNode);
+      int secondRoot = find(parent, secondNode);
+      if (firstRoot == secondRoot) {
+        continue;
+      }
+      if (acceptable[firstNode] != acceptable[secondNode]) {
+        return buildCounterexample(symbols, previousPairs, pairSymbols, pair);
+      }
+
+      if (size[firstRoot] < size[secondRoot]) {
+        parent[firstRoot] = secondRoot;
+        size[secondRoot] += size[firstRoot];
+      } else {
+        parent[secondRoot] = firstRoot;
+        size[firstRoot] += size[secondRoot];
+      }
+
+      if (tail + k > firstNodes.length) {
+        int newCapacity = Math.max(2 * firstNodes.length, tail + k);
+        firstNodes = Arrays.copyOf(firstNodes, newCapacity);
+        secondNodes = Arrays.copyOf(secondNodes, newCapacity);
+        previousPairs = Arrays.copyOf(previousPairs, newCapacity);
+        pairSymbols = Arrays.copyOf(pairSymbols, newCapacity);
+      }
+      for (int symbol = 0; symbol < k; symbol++) {
+        firstNodes[tail] = transitions[firstNode * k + symbol];
+        secondNodes[tail] = transitions[secondNode * k + symbol];
+        previousPairs[tail] = pair;
+        pairSymbols[tail] = symbol;
+        tail++;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns sorted union of two sorted alphabets.
+   * 
+   * @param first first alphabet in alphabetical order
+   * @param second second alphabet in alphabetical order
+   * @return union of alphabets in alphabetical order
+   */
+  private static Symbol[] mergeAlphabets(Symbol[] first, Symbol[] second) {
+    Symbol[] merged = new Symbol[first.length + second.length];
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < first.length || j < second.length) {
+      int comparison = i == first.length ? 1 : j == second.length ? -1
+          : first[i].compareTo(second[j]);
+      if (comparison <= 0) {
+        merged[count++] = first[i++];
+        if (comparison == 0) {
+          j++;
+        }
+      } else {
+        merged[count++] = second[j++];
+      }
+    }
+    return Arrays.copyOf(merged, count);
+  }
+
+  /**
+   * Copies transitions and acceptable states of given automaton to common arrays, in which its
+   * states start at given offset. Missing transitions are left going to sink state.
+   * 
+   * @param dfa automaton whose transitions are copied
+   * @param symbols union of alphabets of both automata
+   * @param offset node of first state of automaton
+   * @param sink node of sink state
+   * @param transitions transitions of all nodes over symbols of both automata
+   * @param acceptable tells for each node if it is acceptable
+   */
+  private static void addTransitions(CompiledDFA dfa, Symbol[] symbols, int offset, int sink,
+      int[] transitions, boolean[] acceptable) {
+    int k = symbols.length;
+    int n = dfa.states.length;
+    for (int symbol = 0; symbol < k; symbol++) {
+      int dfaSymbol = dfa.indexOf(symbols[symbol]);
+      if (dfaSymbol == CompiledDFA.NONE) {
+        continue;
+      }
+      for (int state = 0; state < n; state++) {
+        int target = dfa.next(state, dfaSymbol);
+        transitions[(offset + state) * k + symbol] =
+            target == CompiledDFA.NONE ? sink : offset + target;
+      }
+    }
+    for (int state = 0; state < n; state++) {
+      acceptable[offset + state] = dfa.isAcceptable(state);
+    }
+  }
+
+  /**
+   * Returns root of set of given node, halving path to it.
+   * 
+   * @param parent parent of each node
+   * @param node node whose root is found
+   * @return root of set of given node
+   */
+  private static int find(int[] parent, int node) {
+    while (parent[node] != node) {
+      parent[node] = parent[parent[node]];
+      node = parent[node];
+    }
+    return node;
+  }
+
+  /**
+   * Returns sequence of symbols by which given pair is reached from pair of initial states.
+   * 
+   * @param symbols union of alphabets of both automata
+   * @param previousPairs pair from which each pair is reached
+   * @param pairSymbols symbol over which each pair is reached
+   * @param pair last pair
+   * @return sequence of symbols by which given pair is reached
+   */
+  private static List<Symbol> buildCounterexample(Symbol[] symbols, int[] previousPairs,
+      int[] pairSymbols, int pair) {
+    List<Symbol> sequence = new ArrayList<>();
+    for (int current = pair; previousPairs[current] >= 0; current = previousPairs[current]) {
+      sequence.add(symbols[pairSymbols[current]]);
+    }
+    Collections.reverse(sequence);
+    return sequence;
+  }
+
+}
@@ -1,45 +1,240 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Minimizer of Deterministic Finite Automaton <i>DFA</i>. It first removes unreachable states and
- * then uses algorithm described <a
- * href="https://www.cs.umd.edu/class/fall2009/cmsc330/lectures/discussion2.pdf">here</a>.
+ * then merges equivalent states, which are found with one of {@link MinimizationAlgorithm}s,
+ * {@link MinimizationAlgorithm#AUTO} by default. {@link MinimizationAlgorithm#TABLE_FILLING} is
+ * algorithm described <a
+ * href="https://www.cs.umd.edu/class/fall2009/cmsc330/lectures/discussion2.pdf">here</a>. <br>
+ * Minimizer keeps no state between calls and does not modify given automaton, so different
+ * threads can minimize automata at the same time.
  * 
  * @author Herman Zvonimir Dosilovic
- *
+ * 
  */
 public final class DFAMinimizer {
 
-  /** Contains information about which state will replace some other state in minimized <i>DFA</i>. */
-  private static Map<State, State> swapMap;
+  /**
+   * Part of all possible transitions below which automaton is minimized with
+   * {@link MinimizationAlgorithm#VALMARI_LEHTINEN} by {@link MinimizationAlgorithm#AUTO}.
+   */
+  private static final double SPARSE_DENSITY = 0.125;
+
+  /** Name of sink state which is added if no dead state can become sink state. */
+  private static final String SINK_NAME = "sink";
 
-  /** Unequal states of the last <i>DFA</i> who called <code>findUnequalStates</code> method. */
-  private static Set<CommutativePair<State, State>> unequalStates;
+  /** Algorithm used if none is given, the same as default algorithm of <code>MinDka</code>. */
+  private static final MinimizationAlgorithm DEFAULT_ALGORITHM = MinimizationAlgorithm.AUTO;
+
+  /**
+   * Returns new minimized representation of given <i>DFA</i>, whose equivalent states are found
+   * with algorithm selected by {@link MinimizationAlgorithm#AUTO}.
+   * 
+   * @param dfa <i>DFA</i> who will be minimized
+   * @return new minimized representation of given <i>DFA</i>
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  public static DFA minimize(DFA dfa) throws DFAException {
+    return minimize(dfa, DEFAULT_ALGORITHM);
+  }
+
+  /**
+   * Returns new minimized representations of given automata, in the same order. Automata are
+   * minimized in parallel on common <code>ForkJoinPool</code>, which is safe because minimization
+   * keeps no state between calls and does not modify given automata.
+   * 
+   * @param dfas automata which will be minimized
+   * @return minimized representations of given automata
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  public static List<DFA> minimizeAll(Collection<DFA> dfas) throws DFAException {
+    return minimizeAll(dfas, DEFAULT_ALGORITHM);
+  }
 
   /**
-   * Holds dependency map of states of last <i>DFA</i> who called <code>findUnequalStates</code>
-   * method.
+   * Returns new minimized representations of given automata, in the same order, whose equivalent
+   * states are found with given algorithm. Automata are minimized in parallel on common
+   * <code>ForkJoinPool</code>.
+   * 
+   * @param dfas automata which will be minimized
+   * @param algorithm algorithm which finds equivalent states
+   * @return minimized representations of given automata
+   * @throws DFAException if <i>DFA</i> definition error occurs
    */
-  private static Map<CommutativePair<State, State>, Set<CommutativePair<State, State>>> dependencyMap;
+  public static List<DFA> minimizeAll(Collection<DFA> dfas,
+      final MinimizationAlgorithm algorithm) throws DFAException {
+    List<Callable<DFA>> tasks = new ArrayList<>(dfas.size());
+    for (final DFA dfa : dfas) {
+      tasks.add(new Callable<DFA>() {
+        @Override
+        public DFA call() throws DFAException {
+          return minimize(dfa, algorithm);
+        }
+      });
+    }
+
+    List<DFA> minimizedDfas = new ArrayList<>(tasks.size());
+    for (Future<DFA> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+      try {
+        minimizedDfas.add(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("interrupted while minimizing", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof DFAException) {
+          throw (DFAException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+      }
+    }
+    return minimizedDfas;
+  }
 
   /**
-   * Returns new minimized representation of given <i>DFA</i>
+   * Returns new minimized representation of given <i>DFA</i>, whose equivalent states are found
+   * with given algorithm. Each set of equivalent states is replaced with its alphabetically
+   * smallest state, so result does not depend on algorithm.
    * 
    * @param dfa <i>DFA</i> who will be minimized
+   * @param algorithm algorithm which finds equivalent states
    * @return new minimized representation of given <i>DFA</i>
    * @throws DFAException if <i>DFA</i> definition error occurs
    */
-  public static DFA minimize(DFA dfa) throws DFAException {
-    DFA minimizedDfa = getDFAWithOnlyReachableStates(dfa);
-    findUnequalStates(minimizedDfa);
-    removeEqualStatesFromDFA(unequalStates, minimizedDfa);
-    return minimizedDfa;
+  public static DFA minimize(DFA dfa, MinimizationAlgorithm algorithm) throws DFAException {
+    return minimize(dfa, algorithm, DeadStateHandling.KEEP);
+  }
+
+  /**
+   * Returns new minimized representation of given <i>DFA</i>, whose equivalent states are found
+   * with given algorithm and whose dead states are then handled in given way. Dead states are
+   * found over reversed transitions of minimized <i>DFA</i>, as described in
+   * {@link IndexedDFA#findLiveStates()}.
+   * 
+   * @param dfa <i>DFA</i> who will be minimized
+   * @param algorithm algorithm which finds equivalent states
+   * @param deadStateHandling way in which dead states are handled
+   * @return new minimized representation of given <i>DFA</i>
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  public static DFA minimize(DFA dfa, MinimizationAlgorithm algorithm,
+      DeadStateHandling deadStateHandling) throws DFAException {
+    DFA minimizedDfa = findEquivalentStates(dfa, algorithm);
+    if (deadStateHandling == DeadStateHandling.KEEP) {
+      return minimizedDfa;
+    }
+
+    IndexedDFA indexedDfa = new IndexedDFA(minimizedDfa);
+    IndexedDFA liveDfa = indexedDfa.withOnlyLiveStates();
+    if (deadStateHandling == DeadStateHandling.SINK) {
+      liveDfa = liveDfa.withSinkState(findSinkState(indexedDfa, liveDfa));
+    }
+    return liveDfa == indexedDfa ? minimizedDfa : liveDfa.toDFA();
+  }
+
+  /**
+   * Returns name of sink state which completes given automaton without dead states: its initial
+   * state if it is dead, the alphabetically smallest removed dead state, or new state whose name is
+   * not a name of any state of automaton.
+   * 
+   * @param dfa automaton with dead states
+   * @param liveDfa the same automaton without dead states
+   * @return sink state
+   */
+  private static State findSinkState(IndexedDFA dfa, IndexedDFA liveDfa) {
+    // all states are reachable, so initial state is dead only if no state is acceptable
+    boolean hasAcceptable = false;
+    for (boolean acceptable : liveDfa.acceptable) {
+      hasAcceptable |= acceptable;
+    }
+    if (!hasAcceptable) {
+      return liveDfa.states[liveDfa.initialState];
+    }
+    for (int i = 0; i < dfa.states.length; i++) { // kept states are in the same order
+      if (i >= liveDfa.states.length || dfa.states[i] != liveDfa.states[i]) {
+        return dfa.states[i];
+      }
+    }
+    State sink = State.of(SINK_NAME);
+    for (int i = 1; Arrays.binarySearch(dfa.states, sink) >= 0; i++) {
+      sink = State.of(SINK_NAME + i);
+    }
+    return sink;
+  }
+
+  /**
+   * Returns new minimized representation of given <i>DFA</i>, whose equivalent states are found
+   * with given algorithm.
+   * 
+   * @param dfa <i>DFA</i> who will be minimized
+   * @param algorithm algorithm which finds equivalent states
+   * @return new minimized representation of given <i>DFA</i>
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  private static DFA findEquivalentStates(DFA dfa, MinimizationAlgorithm algorithm)
+      throws DFAException {
+    IndexedDFA indexedDfa = new IndexedDFA(dfa).withOnlyReachableStates();
+    if (algorithm == MinimizationAlgorithm.AUTO) {
+      algorithm = selectAlgorithm(indexedDfa);
+    }
+
+    switch (algorithm) {
+      case TABLE_FILLING:
+        DFA reachableDfa = indexedDfa.toDFA();
+        removeEqualStatesFromDFA(indexedDfa, findUnequalStates(indexedDfa), reachableDfa);
+        return reachableDfa;
+      case HOPCROFT:
+        return indexedDfa.mergeStates(HopcroftMinimizer.findBlocks(indexedDfa));
+      case BRZOZOWSKI:
+        return indexedDfa.mergeStates(BrzozowskiMinimizer.findBlocks(indexedDfa));
+      case VALMARI_LEHTINEN:
+        return indexedDfa.mergeStates(ValmariLehtinenMinimizer.findBlocks(indexedDfa));
+      case PARALLEL_MOORE:
+        return indexedDfa.mergeStates(ParallelMooreMinimizer.findBlocks(indexedDfa));
+      default:
+        throw new IllegalArgumentException("unknown algorithm " + algorithm);
+    }
+  }
+
+  /**
+   * Selects algorithm for given automaton with all states reachable. Choices are based on
+   * measurements of <code>MinimizerBenchmark</code>: if less than {@link #SPARSE_DENSITY} of all
+   * possible transitions exist, {@link MinimizationAlgorithm#VALMARI_LEHTINEN} is selected, since
+   * it visits only existing transitions, and otherwise {@link MinimizationAlgorithm#HOPCROFT} is
+   * selected. {@link MinimizationAlgorithm#TABLE_FILLING} and
+   * {@link MinimizationAlgorithm#BRZOZOWSKI} are never selected, since they were slower than
+   * {@link MinimizationAlgorithm#HOPCROFT} for every measured automaton, even for automata whose
+   * reversal is deterministic. {@link MinimizationAlgorithm#PARALLEL_MOORE} is not selected
+   * either, since its speed depends on number of cores and number of rounds, which is not known
+   * before minimization.
+   * 
+   * @param dfa automaton to minimize
+   * @return algorithm which should minimize given automaton
+   */
+  static MinimizationAlgorithm selectAlgorithm(IndexedDFA dfa) {
+    long possibleTransitions = (long) dfa.states.length * dfa.symbols.length;
+    if (dfa.getPredecessors().length < SPARSE_DENSITY * possibleTransitions) {
+      return MinimizationAlgorithm.VALMARI_LEHTINEN;
+    }
+    return MinimizationAlgorithm.HOPCROFT;
   }
 
   /**
@@ -47,87 +242,155 @@ public final class DFAMinimizer {
    * 
    * @param dfa <i>DFA</i>
    * @return unequal states of given <i>DFA</i>
+   * @throws DFAException if <i>DFA</i> definition error occurs
    */
-  public Set<CommutativePair<State, State>> getUnequalStates(DFA dfa) {
-    findUnequalStates(dfa);
-    return new HashSet<>(unequalStates);
+  public Set<CommutativePair<State, State>> getUnequalStates(DFA dfa) throws DFAException {
+    IndexedDFA indexedDfa = new IndexedDFA(dfa);
+    long[] unequal = findUnequalStates(indexedDfa);
+    int n = indexedDfa.states.length;
+    Set<CommutativePair<State, State>> unequalStates = new HashSet<>();
+    for (int i = 0; i < n; i++) {
+      for (int j = i + 1; j < n; j++) {
+        if (isUnequal(unequal, n, i, j)) {
+          unequalStates.add(new CommutativePair<>(indexedDfa.states[i], indexedDfa.states[j]));
+        }
+      }
+    }
+    return unequalStates;
   }
 
   /**
-   * Finds all unequal states in given <i>DFA</i>.
+   * Finds all unequal states in given <i>DFA</i>. Two states are unequal if exactly one of them is
+   * acceptable, or if over some symbol they go to unequal states. As in other algorithms, missing
+   * transitions go to an implicit unacceptable sink state, which goes to itself, so incomplete
+   * automaton is minimized as its completion and the sink state is then left out. <br>
+   * Pair of states <i>i &lt; j</i> is stored as bit <i>i * n + j</i> of returned bitset, where
+   * <i>n</i> is number of states. Pairs are marked with explicit worklist instead of recursion:
+   * when pair is marked, all pairs of its predecessors over the same symbol which are not marked
+   * yet are marked and added to worklist, so every pair is visited at most once. Predecessors are
+   * kept in flat arrays, so dependencies of pairs are not stored.
    * 
    * @param dfa <i>DFA</i> for which to find unequal states
+   * @return bitset of unequal pairs of states
    */
-  private static void findUnequalStates(DFA dfa) {
-    unequalStates = new HashSet<>();
-    dependencyMap = new HashMap<>();
-    Set<State> states = dfa.getStates();
-    Set<State> acceptableStates = dfa.getAcceptableStates();
-    Set<Symbol> alphabet = dfa.getAlphabet();
-    Map<CommutativePair<State, Symbol>, State> transitionFunction = dfa.getTransitionFunction();
-
-    for (State firstState : states)
-      for (State secondState : states)
-        if (acceptableStates.contains(firstState) != acceptableStates.contains(secondState))
-          unequalStates.add(new CommutativePair<>(firstState, secondState));
-
-    for (State firstState : states) {
-      for (State secondState : states) {
-        CommutativePair<State, State> pair = new CommutativePair<>(firstState, secondState);
-        if (unequalStates.contains(pair) || firstState.equals(secondState))
-          continue;
+  private static long[] findUnequalStates(IndexedDFA dfa) {
+    int n = dfa.states.length;
+    int k = dfa.symbols.length;
+    if (dfa.isComplete()) {
+      return findUnequalStates(n, k, dfa.acceptable, dfa.getPredecessorStart(),
+          dfa.getPredecessors());
+    }
 
-        boolean markedAsUnequal = false;
-        for (Symbol symbol : alphabet) {
-          State firstTransitionState =
-              transitionFunction.get(new CommutativePair<>(firstState, symbol));
-          State secondTransitionState =
-              transitionFunction.get(new CommutativePair<>(secondState, symbol));
-          if (unequalStates.contains(new CommutativePair<>(firstTransitionState,
-              secondTransitionState))) {
-            markedAsUnequal = true;
-            markAsUnequal(pair);
-            break;
-          }
+    int m = n + 1; // sink state is the last one
+    int[] transitions = new int[m * k];
+    for (int i = 0; i < transitions.length; i++) {
+      int target = i < dfa.transitions.length ? dfa.transitions[i] : -1;
+      transitions[i] = target < 0 ? n : target;
+    }
+    int[] predecessorStart = new int[k * m + 1];
+    int[] predecessors = IndexedDFA.computePredecessors(m, k, transitions, predecessorStart);
+    long[] completeUnequal =
+        findUnequalStates(m, k, Arrays.copyOf(dfa.acceptable, m), predecessorStart, predecessors);
+
+    long[] unequal = new long[(int) (((long) n * n + Long.SIZE - 1) / Long.SIZE)];
+    for (int first = 0; first < n; first++) {
+      for (int second = first + 1; second < n; second++) {
+        if (isUnequal(completeUnequal, m, first, second)) {
+          markAsUnequal(unequal, n, first, second);
         }
+      }
+    }
+    return unequal;
+  }
 
-        if (markedAsUnequal)
+  /**
+   * Finds all unequal states of automaton with given acceptable states and predecessors, as
+   * described in {@link #findUnequalStates(IndexedDFA)}.
+   * 
+   * @param n number of states
+   * @param k number of symbols
+   * @param acceptable tells for each state if it is acceptable
+   * @param predecessorStart start of predecessors of each state over each symbol
+   * @param predecessors predecessors of all states over all symbols
+   * @return bitset of unequal pairs of states
+   */
+  private static long[] findUnequalStates(int n, int k, boolean[] acceptable,
+      int[] predecessorStart, int[] predecessors) {
+    long[] unequal = new long[(int) (((long) n * n + Long.SIZE - 1) / Long.SIZE)];
+    // both states of pair are kept, since i * n + j may not fit in int
+    int[] worklist = new int[2 * Math.max(n, 1)];
+    for (int first = 0; first < n; first++) {
+      for (int second = first + 1; second < n; second++) {
+        if (acceptable[first] == acceptable[second]
+            || !markAsUnequal(unequal, n, first, second)) {
           continue;
+        }
 
-        for (Symbol symbol : alphabet) {
-          State firstTransitionState =
-              transitionFunction.get(new CommutativePair<>(firstState, symbol));
-          State secondTransitionState =
-              transitionFunction.get(new CommutativePair<>(secondState, symbol));
-
-          if (firstTransitionState == null || secondTransitionState == null)
-            continue;
-
-          if (!firstTransitionState.equals(secondTransitionState)) {
-            CommutativePair<State, State> transitionPair =
-                new CommutativePair<>(firstTransitionState, secondTransitionState);
-            if (!dependencyMap.containsKey(transitionPair))
-              dependencyMap.put(transitionPair, new HashSet<CommutativePair<State, State>>());
-
-            dependencyMap.get(transitionPair).add(pair);
+        int size = 0;
+        worklist[size++] = first;
+        worklist[size++] = second;
+        while (size > 0) {
+          int secondTarget = worklist[--size];
+          int firstTarget = worklist[--size];
+          for (int symbol = 0; symbol < k; symbol++) {
+            int firstIndex = symbol * n + firstTarget;
+            int secondIndex = symbol * n + secondTarget;
+            for (int i = predecessorStart[firstIndex]; i < predecessorStart[firstIndex + 1]; i++) {
+              for (int j = predecessorStart[secondIndex]; j < predecessorStart[secondIndex + 1];
+                  j++) {
+                int firstState = predecessors[i];
+                int secondState = predecessors[j];
+                if (markAsUnequal(unequal, n, firstState, secondState)) {
+                  if (size + 2 > worklist.length) {
+                    worklist = Arrays.copyOf(worklist, 2 * worklist.length);
+                  }
+                  worklist[size++] = firstState;
+                  worklist[size++] = secondState;
+                }
+              }
+            }
           }
         }
       }
     }
+    return unequal;
   }
 
   /**
-   * Marks pair of states as unequal.
+   * Marks pair of different states as unequal.
    * 
-   * @param pair pair of states
+   * @param unequal bitset of unequal pairs of states
+   * @param n number of states
+   * @param first index of first state
+   * @param second index of second state
+   * @return <code>true</code> if pair was not marked before
    */
-  private static void markAsUnequal(CommutativePair<State, State> pair) {
-    unequalStates.add(pair);
-    if (dependencyMap.containsKey(pair)) {
-      for (CommutativePair<State, State> states : dependencyMap.get(pair)) {
-        markAsUnequal(states);
-      }
+  private static boolean markAsUnequal(long[] unequal, int n, int first, int second) {
+    if (first == second) {
+      return false;
+    }
+    long bit = first < second ? (long) first * n + second : (long) second * n + first;
+    int word = (int) (bit / Long.SIZE);
+    long mask = 1L << (bit % Long.SIZE);
+    if ((unequal[word] & mask) != 0) {
+      return false;
     }
+    unequal[word] |= mask;
+    return true;
+  }
+
+  /**
+   * Returns <code>true</code> if pair of different states is marked as unequal.
+   * 
+   * @param unequal bitset of unequal pairs of states
+   * @param n number of states
+   * @param first index of first state
+   * @param second index of second state
+   * @return <code>true</code> if pair of states is unequal
+   */
+  private static boolean isUnequal(long[] unequal, int n, int first, int second) {
+    long bit = first < second ? (long) first * n + second : (long) second * n + first;
+    return (unequal[(int) (bit / Long.SIZE)] & 1L << (bit % Long.SIZE)) != 0;
   }
 
   /**
@@ -139,7 +402,7 @@ public final class DFAMinimizer {
    */
   public static void removeEqualStatesFromDFA(Set<CommutativePair<State, State>> unequalStates,
       DFA dfa) throws DFAException {
-    swapMap = new HashMap<>();
+    Map<State, State> swapMap = new HashMap<>();
 
     State initialState = dfa.getInitialState();
     Set<State> states = dfa.getStates();
@@ -165,6 +428,56 @@ public final class DFAMinimizer {
       }
     }
 
+    replaceRemovedStates(dfa, initialState, swapMap);
+  }
+
+  /**
+   * From given bitset of unequal states of <i>DFA</i> this will remove all equal states in given
+   * <i>DFA</i>. States are visited in the same order as in
+   * {@link #removeEqualStatesFromDFA(Set, DFA)}, so the same states are removed.
+   * 
+   * @param indexedDfa array representation of given <i>DFA</i>
+   * @param unequal bitset of unequal pairs of states, as returned by
+   *        {@link #findUnequalStates(IndexedDFA)}
+   * @param dfa <i>DFA</i> from which to remove equal states
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  private static void removeEqualStatesFromDFA(IndexedDFA indexedDfa, long[] unequal, DFA dfa)
+      throws DFAException {
+    Map<State, State> swapMap = new HashMap<>();
+
+    State initialState = dfa.getInitialState();
+    Set<State> states = dfa.getStates();
+    int n = indexedDfa.states.length;
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (i == j || isUnequal(unequal, n, i, j))
+          continue;
+
+        State firstState = indexedDfa.states[Math.min(i, j)];
+        State secondState = indexedDfa.states[Math.max(i, j)];
+        swapMap.put(secondState, firstState);
+        states.remove(secondState);
+        if (initialState.equals(secondState))
+          initialState = firstState;
+      }
+    }
+
+    replaceRemovedStates(dfa, initialState, swapMap);
+  }
+
+  /**
+   * Sets given initial state and replaces states which are no longer states of given <i>DFA</i>
+   * with states which replace them in transition function and acceptable states.
+   * 
+   * @param dfa <i>DFA</i> from which equal states are removed
+   * @param initialState new initial state
+   * @param swapMap state which replaces each removed state
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  private static void replaceRemovedStates(DFA dfa, State initialState,
+      Map<State, State> swapMap) throws DFAException {
+    Set<State> states = dfa.getStates();
     dfa.setInitialState(initialState);
 
     Map<CommutativePair<State, Symbol>, State> transitionFunction =
@@ -175,8 +488,9 @@ public final class DFAMinimizer {
       State transitionState = transitionFunction.get(pair);
       if (!states.contains(state) || !states.contains(transitionState)) {
         dfa.getTransitionFunction().remove(pair);
-        dfa.getTransitionFunction().put(new CommutativePair<>(findSwapState(state), symbol),
-            findSwapState(transitionState));
+        dfa.getTransitionFunction().put(
+            new CommutativePair<>(findSwapState(state, swapMap), symbol),
+            findSwapState(transitionState, swapMap));
       }
     }
 
@@ -194,12 +508,13 @@ public final class DFAMinimizer {
    * in minimum representation of <i>DFA</i>.
    * 
    * @param state state for which to find replacing state
+   * @param swapMap state which replaces each removed state
    * @return state which will replace given state in the minimized <i>DFA</i>
    */
-  private static State findSwapState(State state) {
+  private static State findSwapState(State state, Map<State, State> swapMap) {
     if (!swapMap.containsKey(state))
       return state;
-    return findSwapState(swapMap.get(state));
+    return findSwapState(swapMap.get(state), swapMap);
   }
 
   /**
@@ -238,19 +553,17 @@ public final class DFAMinimizer {
   }
 
   /**
-   * Constructs new <i>DFA</i> of the given <i>DFA</i> but only with reachable states.
+   * Constructs new <i>DFA</i> of the given <i>DFA</i> but only with reachable states. Given
+   * <i>DFA</i> is not modified. Reachable states are found over array representation of
+   * <i>DFA</i>, as described in {@link IndexedDFA#withOnlyReachableStates()}, and new <i>DFA</i>
+   * is built from them in one pass.
    * 
    * @param dfa <i>DFA</i> from which to construct new <i>DFA</i>
    * @return new <i>DFA</i> of the given <i>DFA</i> but only with reachable states
    * @throws DFAException if <i>DFA</i> definition error occurs
    */
   public static DFA getDFAWithOnlyReachableStates(final DFA dfa) throws DFAException {
-    DFADefinition dfaDefinition =
-        new DFADefinition(dfa.getStates(), dfa.getAlphabet(), dfa.getInitialState(),
-            dfa.getAcceptableStates(), dfa.getTransitionFunction());
-    DFA newDfa = new DFA(dfaDefinition);
-    removeUnreachableStatesFromDFA(newDfa);
-    return newDfa;
+    return new IndexedDFA(dfa).withOnlyReachableStates().toDFA();
   }
 
   /**
@@ -261,7 +574,7 @@ public final class DFAMinimizer {
    */
   public static Set<State> getReachableStates(DFA dfa) {
     Set<State> states = new TreeSet<>();
-    Queue<State> queue = new LinkedBlockingQueue<>();
+    Queue<State> queue = new ArrayDeque<>();
 
     states.add(dfa.getInitialState());
     queue.add(dfa.getInitialState());
@@ -0,0 +1,28 @@
+/**
+ * Ways in which {@link DFAMinimizer} can handle dead states of minimized <i>Deterministic Finite
+ * Automaton</i>, which are states from which no acceptable state is reachable. Automaton which
+ * enters a dead state can never accept, so input can be rejected as soon as it is entered.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+public enum DeadStateHandling {
+
+  /** Dead states are kept as they are. */
+  KEEP,
+
+  /**
+   * Dead states are removed, and transitions to them become missing transitions, so automaton
+   * which would enter a dead state is not in any state. If initial state is dead, it is kept
+   * without transitions.
+   */
+  REMOVE,
+
+  /**
+   * Dead states are removed and every missing transition goes to one unacceptable sink state,
+   * which goes to itself over every symbol, so automaton is complete. Sink state takes name of
+   * alphabetically smallest removed state, or a new name if no state was removed. If initial
+   * state is dead, it is the sink state, so automaton has only one state.
+   */
+  SINK
+
+}
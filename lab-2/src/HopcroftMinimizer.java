@@ -0,0 +1,267 @@
+/**
+ * Finds equivalent states of <i>Deterministic Finite Automaton</i> with <i>Hopcroft's</i>
+ * partition refinement. States are first split into acceptable and unacceptable ones, and then
+ * every block is split by blocks whose predecessors over some symbol it only partly contains,
+ * until no block can be split. After a block is split, only the smaller part has to be used as
+ * splitter if the block itself is not waiting to be used, so every state is in a splitter at most
+ * <i>log n</i> times. <br>
+ * Partition is kept in a single array of states in which every block is a contiguous range, and
+ * predecessors of each state are kept in arrays indexed by state and symbol, so refinement does
+ * not create objects. Missing transitions go to an implicit unacceptable sink state.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+final class HopcroftMinimizer {
+
+  /** Number of states, including sink state if automaton is not complete. */
+  private final int stateCount;
+
+  /** Number of symbols. */
+  private final int symbolCount;
+
+  /**
+   * Start of predecessors of state <code>s</code> over symbol <code>a</code> in
+   * {@link #predecessors}, stored at <code>a * stateCount + s</code>. Predecessors end where
+   * predecessors of the next index start.
+   */
+  private final int[] predecessorStart;
+
+  /** Predecessors of all states over all symbols. */
+  private final int[] predecessors;
+
+  /** States ordered so that every block is a contiguous range. */
+  private final int[] elements;
+
+  /** Position of each state in {@link #elements}. */
+  private final int[] location;
+
+  /** Block of each state. */
+  private final int[] blockOf;
+
+  /** Start of each block in {@link #elements}. */
+  private final int[] blockStart;
+
+  /** End (exclusive) of each block in {@link #elements}. */
+  private final int[] blockEnd;
+
+  /** Number of marked states of each block, which are kept at the start of block. */
+  private final int[] marked;
+
+  /** Number of blocks. */
+  private int blockCount;
+
+  /** Blocks which have marked states. */
+  private final int[] touched;
+
+  /** Number of blocks which have marked states. */
+  private int touchedCount;
+
+  /** Blocks waiting to be used as splitters, used as a stack. */
+  private final int[] waiting;
+
+  /** Number of blocks waiting to be used as splitters. */
+  private int waitingCount;
+
+  /** Tells for each block if it is waiting to be used as splitter. */
+  private final boolean[] isWaiting;
+
+  /**
+   * Creates partition of states of given automaton into acceptable and unacceptable states.
+   * 
+   * @param dfa automaton whose states are partitioned
+   */
+  private HopcroftMinimizer(final IndexedDFA dfa) {
+    int realStates = dfa.states.length;
+    boolean complete = dfa.isComplete();
+    stateCount = complete ? realStates : realStates + 1;
+    symbolCount = dfa.symbols.length;
+
+    predecessorStart = new int[symbolCount * stateCount + 1];
+    for (int state = 0; state < stateCount; state++) {
+      for (int symbol = 0; symbol < symbolCount; symbol++) {
+        predecessorStart[symbol * stateCount + target(dfa, state, symbol) + 1]++;
+      }
+    }
+    for (int i = 1; i < predecessorStart.length; i++) {
+      predecessorStart[i] += predecessorStart[i - 1];
+    }
+    predecessors = new int[stateCount * symbolCount];
+    int[] next = new int[predecessorStart.length];
+    System.arraycopy(predecessorStart, 0, next, 0, next.length);
+    for (int state = 0; state < stateCount; state++) {
+      for (int symbol = 0; symbol < symbolCount; symbol++) {
+        predecessors[next[symbol * stateCount + target(dfa, state, symbol)]++] = state;
+      }
+    }
+
+    elements = new int[stateCount];
+    location = new int[stateCount];
+    blockOf = new int[stateCount];
+    blockStart = new int[stateCount];
+    blockEnd = new int[stateCount];
+    marked = new int[stateCount];
+    touched = new int[stateCount];
+    waiting = new int[stateCount];
+    isWaiting = new boolean[stateCount];
+
+    int acceptableCount = 0;
+    for (int state = 0; state < realStates; state++) {
+      if (dfa.acceptable[state]) {
+        acceptableCount++;
+      }
+    }
+    int acceptablePosition = 0;
+    int unacceptablePosition = acceptableCount;
+    for (int state = 0; state < stateCount; state++) {
+      boolean acceptable = state < realStates && dfa.acceptable[state];
+      int position = acceptable ? acceptablePosition++ : unacceptablePosition++;
+      elements[position] = state;
+      location[state] = position;
+    }
+
+    if (acceptableCount > 0) {
+      addBlock(0, acceptableCount);
+    }
+    if (acceptableCount < stateCount) {
+      addBlock(acceptableCount, stateCount);
+    }
+    if (blockCount == 2) { // either block can be the first splitter, so smaller one is used
+      addWaiting(acceptableCount <= stateCount - acceptableCount ? 0 : 1);
+    }
+  }
+
+  /**
+   * Returns block of each state of given automaton, such that two states are in the same block if
+   * and only if they are equivalent.
+   * 
+   * @param dfa automaton whose equivalent states are found
+   * @return block of each state
+   */
+  static int[] findBlocks(final IndexedDFA dfa) {
+    HopcroftMinimizer minimizer = new HopcroftMinimizer(dfa);
+    minimizer.refine();
+    int[] blocks = new int[dfa.states.length];
+    System.arraycopy(minimizer.blockOf, 0, blocks, 0, blocks.length);
+    return blocks;
+  }
+
+  /**
+   * Returns target of transition, where missing transitions and transitions of sink state go to
+   * sink state.
+   * 
+   * @param dfa automaton
+   * @param state state from which transition goes
+   * @param symbol symbol of transition
+   * @return state to which transition goes
+   */
+  private static int target(final IndexedDFA dfa, final int state, final int symbol) {
+    if (state == dfa.states.length) {
+      return state;
+    }
+    int target = dfa.transitions[state * dfa.symbols.length + symbol];
+    return target < 0 ? dfa.states.length : target;
+  }
+
+  /**
+   * Splits blocks until no block can be split.
+   */
+  private void refine() {
+    int[] splitter = new int[stateCount];
+    while (waitingCount > 0) {
+      int block = waiting[--waitingCount];
+      isWaiting[block] = false;
+      // splitter is copied, because it can itself be split while its symbols are processed
+      int size = blockEnd[block] - blockStart[block];
+      System.arraycopy(elements, blockStart[block], splitter, 0, size);
+
+      for (int symbol = 0; symbol < symbolCount; symbol++) {
+        for (int i = 0; i < size; i++) {
+          int index = symbol * stateCount + splitter[i];
+          for (int j = predecessorStart[index]; j < predecessorStart[index + 1]; j++) {
+            mark(predecessors[j]);
+          }
+        }
+        splitTouched();
+      }
+    }
+  }
+
+  /**
+   * Moves given state to marked part of its block.
+   * 
+   * @param state state to mark
+   */
+  private void mark(final int state) {
+    int block = blockOf[state];
+    int position = location[state];
+    int markedPosition = blockStart[block] + marked[block];
+    if (position < markedPosition) {
+      return;
+    }
+    if (marked[block] == 0) {
+      touched[touchedCount++] = block;
+    }
+
+    int other = elements[markedPosition];
+    elements[markedPosition] = state;
+    location[state] = markedPosition;
+    elements[position] = other;
+    location[other] = position;
+    marked[block]++;
+  }
+
+  /**
+   * Splits every block which is only partly marked into marked and unmarked part, and unmarks all
+   * states.
+   */
+  private void splitTouched() {
+    for (int i = 0; i < touchedCount; i++) {
+      int block = touched[i];
+      int start = blockStart[block];
+      int split = start + marked[block];
+      marked[block] = 0;
+      if (split == blockEnd[block]) {
+        continue;
+      }
+
+      int newBlock = addBlock(start, split);
+      blockStart[block] = split;
+      if (isWaiting[block]) {
+        addWaiting(newBlock);
+      } else if (split - start <= blockEnd[block] - split) {
+        addWaiting(newBlock);
+      } else {
+        addWaiting(block);
+      }
+    }
+    touchedCount = 0;
+  }
+
+  /**
+   * Creates new block of states in given range of {@link #elements}.
+   * 
+   * @param start start of block
+   * @param end end (exclusive) of block
+   * @return new block
+   */
+  private int addBlock(final int start, final int end) {
+    int block = blockCount++;
+    blockStart[block] = start;
+    blockEnd[block] = end;
+    for (int i = start; i < end; i++) {
+      blockOf[elements[i]] = block;
+    }
+    return block;
+  }
+
+  /**
+   * Adds given block to blocks waiting to be used as splitters.
+   * 
+   * @param block block to add
+   */
+  private void addWaiting(final int block) {
+    isWaiting[block] = true;
+    waiting[waitingCount++] = block;
+  }
+
+}
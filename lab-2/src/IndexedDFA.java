@@ -0,0 +1,463 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Representation of <i>Deterministic Finite Automaton</i> in which states and symbols are numbered
+ * by their alphabetical order and transition function is an array, so that algorithms over the
+ * automaton do not need to look up maps. Missing transitions are stored as <code>-1</code>.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+final class IndexedDFA {
+
+  /** States of automaton in alphabetical order. */
+  final State[] states;
+
+  /** Symbols of automaton in alphabetical order. */
+  final Symbol[] symbols;
+
+  /**
+   * Index of state to which automaton goes from state <code>s</code> over symbol <code>a</code>,
+   * stored at <code>s * symbols.length + a</code>, or <code>-1</code> if there is no transition.
+   */
+  final int[] transitions;
+
+  /** Tells for each state if it is acceptable. */
+  final boolean[] acceptable;
+
+  /** Index of initial state. */
+  final int initialState;
+
+  /**
+   * Start of predecessors of state <code>s</code> over symbol <code>a</code> in
+   * {@link #predecessors}, stored at <code>a * states.length + s</code>, or <code>null</code> if
+   * predecessors are not computed yet.
+   */
+  private int[] predecessorStart;
+
+  /** Predecessors of all states over all symbols, or <code>null</code> if not computed yet. */
+  private int[] predecessors;
+
+  /**
+   * Creates array representation of automaton from given arrays, which are shared.
+   * 
+   * @param states states of automaton in alphabetical order
+   * @param symbols symbols of automaton in alphabetical order
+   * @param transitions index of state to which automaton goes from each state over each symbol
+   * @param acceptable tells for each state if it is acceptable
+   * @param initialState index of initial state
+   */
+  private IndexedDFA(final State[] states, final Symbol[] symbols, final int[] transitions,
+      final boolean[] acceptable, final int initialState) {
+    this.states = states;
+    this.symbols = symbols;
+    this.transitions = transitions;
+    this.acceptable = acceptable;
+    this.initialState = initialState;
+  }
+
+  /**
+   * Creates array representation of given automaton. Transitions over symbols which are not in
+   * alphabet are ignored, as are acceptable states which are not states of automaton.
+   * 
+   * @param dfa automaton to represent
+   * @throws DFAException if initial state, or state from or to which some transition goes, is not
+   *         state of automaton
+   */
+  IndexedDFA(final DFA dfa) throws DFAException {
+    states = dfa.getStates().toArray(new State[0]);
+    symbols = dfa.getAlphabet().toArray(new Symbol[0]);
+
+    // indices are sized by ids of this automaton, not by all names ever interned
+    int maxStateId = -1;
+    for (State state : states) {
+      maxStateId = Math.max(maxStateId, state.getId());
+    }
+    int[] stateIndex = new int[maxStateId + 1];
+    Arrays.fill(stateIndex, -1);
+    for (int i = 0; i < states.length; i++) {
+      stateIndex[states[i].getId()] = i;
+    }
+    int maxSymbolId = -1;
+    for (Symbol symbol : symbols) {
+      maxSymbolId = Math.max(maxSymbolId, symbol.getId());
+    }
+    int[] symbolIndex = new int[maxSymbolId + 1];
+    Arrays.fill(symbolIndex, -1);
+    for (int i = 0; i < symbols.length; i++) {
+      symbolIndex[symbols[i].getId()] = i;
+    }
+
+    transitions = new int[states.length * symbols.length];
+    Arrays.fill(transitions, -1);
+    for (Map.Entry<CommutativePair<State, Symbol>, State> entry : dfa.getTransitionFunction()
+        .entrySet()) {
+      int state = indexOf(stateIndex, entry.getKey().getFirst().getId());
+      if (state < 0) {
+        throw new DFAException("transition from unknown state " + entry.getKey().getFirst());
+      }
+      int target = indexOf(stateIndex, entry.getValue().getId());
+      if (target < 0) {
+        throw new DFAException("transition to unknown state " + entry.getValue());
+      }
+      int symbol = indexOf(symbolIndex, entry.getKey().getSecond().getId());
+      if (symbol >= 0) {
+        transitions[state * symbols.length + symbol] = target;
+      }
+    }
+
+    acceptable = new boolean[states.length];
+    for (State state : dfa.getAcceptableStates()) {
+      int index = indexOf(stateIndex, state.getId());
+      if (index >= 0) {
+        acceptable[index] = true;
+      }
+    }
+    initialState = indexOf(stateIndex, dfa.getInitialState().getId());
+    if (initialState < 0) {
+      throw new DFAException("initial state must be in set of all states");
+    }
+  }
+
+  /**
+   * Returns index stored for given id, or <code>-1</code> if id is beyond given index.
+   * 
+   * @param index index by id
+   * @param id id of state or symbol
+   * @return index of state or symbol with given id, or <code>-1</code> if it has none
+   */
+  private static int indexOf(final int[] index, final int id) {
+    return id < index.length ? index[id] : -1;
+  }
+
+  /**
+   * Returns start of predecessors of each state over each symbol in {@link #getPredecessors()}.
+   * Predecessors of state <code>s</code> over symbol <code>a</code> start at index
+   * <code>a * states.length + s</code> and end where predecessors of the next index start.
+   * 
+   * @return start of predecessors of each state over each symbol
+   */
+  int[] getPredecessorStart() {
+    if (predecessorStart == null) {
+      computePredecessors();
+    }
+    return predecessorStart;
+  }
+
+  /**
+   * Returns predecessors of all states over all symbols, laid out as described in
+   * {@link #getPredecessorStart()}.
+   * 
+   * @return predecessors of all states over all symbols
+   */
+  int[] getPredecessors() {
+    if (predecessors == null) {
+      computePredecessors();
+    }
+    return predecessors;
+  }
+
+  /**
+   * Computes predecessors of all states by counting sort of transitions by symbol and target.
+   */
+  private void computePredecessors() {
+    int[] start = new int[symbols.length * states.length + 1];
+    predecessors = computePredecessors(states.length, symbols.length, transitions, start);
+    predecessorStart = start;
+  }
+
+  /**
+   * Computes predecessors of each state over each symbol of automaton with given transitions, laid
+   * out as described in {@link #getPredecessorStart()}.
+   * 
+   * @param n number of states
+   * @param k number of symbols
+   * @param transitions transitions laid out as {@link #transitions}
+   * @param start array of length <code>k * n + 1</code> which is filled with start of predecessors
+   *        of each state over each symbol
+   * @return predecessors of all states over all symbols
+   */
+  static int[] computePredecessors(final int n, final int k, final int[] transitions,
+      final int[] start) {
+    for (int state = 0; state < n; state++) {
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = transitions[state * k + symbol];
+        if (target >= 0) {
+          start[symbol * n + target + 1]++;
+        }
+      }
+    }
+    for (int i = 1; i < start.length; i++) {
+      start[i] += start[i - 1];
+    }
+    int[] sources = new int[start[k * n]];
+    int[] next = Arrays.copyOf(start, start.length);
+    for (int state = 0; state < n; state++) {
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = transitions[state * k + symbol];
+        if (target >= 0) {
+          sources[next[symbol * n + target]++] = state;
+        }
+      }
+    }
+    return sources;
+  }
+
+  /**
+   * Returns new automaton with only states which are reachable from initial state, or this
+   * automaton if all states are reachable. States are found with breadth-first search over
+   * transition table, with queue of state indices and bitset of visited states, and trimmed
+   * automaton is then emitted in one pass over reachable states, which keep their order.
+   * 
+   * @return automaton with only reachable states
+   */
+  IndexedDFA withOnlyReachableStates() {
+    int n = states.length;
+    int k = symbols.length;
+    long[] visited = new long[(n + Long.SIZE - 1) / Long.SIZE];
+    int[] queue = new int[n];
+    int head = 0;
+    int tail = 0;
+    visited[initialState / Long.SIZE] |= 1L << initialState;
+    queue[tail++] = initialState;
+    while (head < tail) {
+      int offset = queue[head++] * k;
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = transitions[offset + symbol];
+        if (target >= 0 && (visited[target / Long.SIZE] & 1L << target) == 0) {
+          visited[target / Long.SIZE] |= 1L << target;
+          queue[tail++] = target;
+        }
+      }
+    }
+    return withOnlyStates(visited, tail);
+  }
+
+  /**
+   * Returns bitset of states from which some acceptable state is reachable. States are found
+   * with breadth-first search from acceptable states over reversed transitions, so other states
+   * are dead: automaton which enters them can never accept.
+   * 
+   * @return bitset of states which are not dead
+   */
+  long[] findLiveStates() {
+    int n = states.length;
+    int k = symbols.length;
+    int[] start = getPredecessorStart();
+    int[] sources = getPredecessors();
+    long[] live = new long[(n + Long.SIZE - 1) / Long.SIZE];
+    int[] queue = new int[n];
+    int tail = 0;
+    for (int state = 0; state < n; state++) {
+      if (acceptable[state]) {
+        live[state / Long.SIZE] |= 1L << state;
+        queue[tail++] = state;
+      }
+    }
+    for (int head = 0; head < tail; head++) {
+      int state = queue[head];
+      for (int symbol = 0; symbol < k; symbol++) {
+        int index = symbol * n + state;
+        for (int i = start[index]; i < start[index + 1]; i++) {
+          int source = sources[i];
+          if ((live[source / Long.SIZE] & 1L << source) == 0) {
+            live[source / Long.SIZE] |= 1L << source;
+            queue[tail++] = source;
+          }
+        }
+      }
+    }
+    return live;
+  }
+
+  /**
+   * Returns new automaton without dead states, which are described in {@link #findLiveStates()},
+   * or this automaton if it has none. Transitions to dead states become missing transitions.
+   * If initial state is dead, automaton accepts nothing and is reduced to its initial state
+   * without transitions, so that it still has initial state.
+   * 
+   * @return automaton without dead states
+   */
+  IndexedDFA withOnlyLiveStates() {
+    long[] live = findLiveStates();
+    if ((live[initialState / Long.SIZE] & 1L << initialState) == 0) {
+      int[] noTransitions = new int[symbols.length];
+      Arrays.fill(noTransitions, -1);
+      return new IndexedDFA(new State[] {states[initialState]}, symbols, noTransitions,
+          new boolean[1], 0);
+    }
+    int count = 0;
+    for (long word : live) {
+      count += Long.bitCount(word);
+    }
+    return withOnlyStates(live, count);
+  }
+
+  /**
+   * Returns new automaton in which every missing transition goes to given sink state, which is
+   * unacceptable and goes to itself over every symbol, or this automaton if it is complete. Sink
+   * state is either a new state, or a state of this automaton which is dead and has transitions
+   * only to itself.
+   * 
+   * @param sink name of sink state
+   * @return complete automaton
+   */
+  IndexedDFA withSinkState(final State sink) {
+    if (isComplete()) {
+      return this;
+    }
+    int n = states.length;
+    int k = symbols.length;
+    int existing = Arrays.binarySearch(states, sink);
+    if (existing >= 0) {
+      int[] completeTransitions = transitions.clone();
+      for (int i = 0; i < completeTransitions.length; i++) {
+        if (completeTransitions[i] < 0) {
+          completeTransitions[i] = existing;
+        }
+      }
+      return new IndexedDFA(states, symbols, completeTransitions, acceptable, initialState);
+    }
+    int position = -existing - 1; // states stay in alphabetical order
+    State[] completeStates = new State[n + 1];
+    System.arraycopy(states, 0, completeStates, 0, position);
+    completeStates[position] = sink;
+    System.arraycopy(states, position, completeStates, position + 1, n - position);
+    boolean[] completeAcceptable = new boolean[n + 1];
+    System.arraycopy(acceptable, 0, completeAcceptable, 0, position);
+    System.arraycopy(acceptable, position, completeAcceptable, position + 1, n - position);
+
+    int[] completeTransitions = new int[(n + 1) * k];
+    Arrays.fill(completeTransitions, position * k, (position + 1) * k, position);
+    for (int state = 0; state < n; state++) {
+      int offset = (state < position ? state : state + 1) * k;
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = transitions[state * k + symbol];
+        completeTransitions[offset + symbol] =
+            target < 0 ? position : target < position ? target : target + 1;
+      }
+    }
+    return new IndexedDFA(completeStates, symbols, completeTransitions, completeAcceptable,
+        initialState < position ? initialState : initialState + 1);
+  }
+
+  /**
+   * Returns new automaton with only given states, which keep their order, or this automaton if
+   * all states are given. Transitions to other states become missing transitions.
+   * 
+   * @param kept bitset of states to keep, which must contain initial state
+   * @param count number of states to keep
+   * @return automaton with only given states
+   */
+  private IndexedDFA withOnlyStates(final long[] kept, final int count) {
+    int n = states.length;
+    int k = symbols.length;
+    if (count == n) {
+      return this;
+    }
+
+    int[] newIndex = new int[n];
+    State[] keptStates = new State[count];
+    boolean[] keptAcceptable = new boolean[count];
+    int index = 0;
+    for (int state = 0; state < n; state++) {
+      if ((kept[state / Long.SIZE] & 1L << state) != 0) {
+        newIndex[state] = index;
+        keptStates[index] = states[state];
+        keptAcceptable[index] = acceptable[state];
+        index++;
+      } else {
+        newIndex[state] = -1;
+      }
+    }
+    int[] keptTransitions = new int[count * k];
+    for (int state = 0; state < n; state++) {
+      if (newIndex[state] >= 0) {
+        int offset = state * k;
+        int newOffset = newIndex[state] * k;
+        for (int symbol = 0; symbol < k; symbol++) {
+          int target = transitions[offset + symbol];
+          keptTransitions[newOffset + symbol] = target < 0 ? -1 : newIndex[target];
+        }
+      }
+    }
+    return new IndexedDFA(keptStates, symbols, keptTransitions, keptAcceptable,
+        newIndex[initialState]);
+  }
+
+  /**
+   * Returns new automaton with the same states, alphabet, initial state, acceptable states and
+   * transitions as this automaton.
+   * 
+   * @return automaton represented by this array representation
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  DFA toDFA() throws DFAException {
+    int[] blocks = new int[states.length];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = i;
+    }
+    return mergeStates(blocks);
+  }
+
+  /**
+   * Returns <code>true</code> if every state has transition over every symbol.
+   * 
+   * @return <code>true</code> if automaton is complete
+   */
+  boolean isComplete() {
+    for (int target : transitions) {
+      if (target < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns new automaton in which each block of equivalent states is replaced with its
+   * alphabetically smallest state. Transitions of merged state are union of transitions of states
+   * in its block, which do not contradict each other because states in block are equivalent.
+   * 
+   * @param blocks non-negative block of each state, states with the same block are merged
+   * @return automaton with merged states
+   * @throws DFAException if <i>DFA</i> definition error occurs
+   */
+  DFA mergeStates(final int[] blocks) throws DFAException {
+    int blockCount = 0;
+    for (int i = 0; i < states.length; i++) {
+      blockCount = Math.max(blockCount, blocks[i] + 1);
+    }
+    State[] representatives = new State[blockCount];
+    for (int i = 0; i < states.length; i++) { // states are sorted, so first one is the smallest
+      if (representatives[blocks[i]] == null) {
+        representatives[blocks[i]] = states[i];
+      }
+    }
+
+    Set<State> mergedStates = new TreeSet<>();
+    Set<State> acceptableStates = new TreeSet<>();
+    Map<CommutativePair<State, Symbol>, State> transitionFunction = new HashMap<>();
+    for (int i = 0; i < states.length; i++) {
+      State representative = representatives[blocks[i]];
+      mergedStates.add(representative);
+      if (acceptable[i]) {
+        acceptableStates.add(representative);
+      }
+      for (int symbol = 0; symbol < symbols.length; symbol++) {
+        int target = transitions[i * symbols.length + symbol];
+        if (target >= 0) {
+          transitionFunction.put(new CommutativePair<>(representative, symbols[symbol]),
+              representatives[blocks[target]]);
+        }
+      }
+    }
+
+    return new DFA(new DFADefinition(mergedStates, Arrays.asList(symbols),
+        representatives[blocks[initialState]], acceptableStates, transitionFunction));
+  }
+
+}
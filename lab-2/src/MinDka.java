@@ -1,4 +1,5 @@
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Main class of lab-2.
@@ -7,17 +8,102 @@ import java.io.IOException;
  */
 public final class MinDka {
 
+  /** Command line argument which is followed by name of minimization algorithm. */
+  private static final String ALGORITHM_ARGUMENT = "--algorithm";
+
+  /** Command line argument which is followed by name of dead state handling. */
+  private static final String DEAD_STATES_ARGUMENT = "--dead-states";
+
+  /** Description of command line arguments, printed when they are not valid. */
+  private static final String USAGE =
+      "usage: java MinDka [--algorithm NAME] [--dead-states NAME] < definition";
+
+  /** Algorithm used if none is given on command line. */
+  private static final MinimizationAlgorithm DEFAULT_ALGORITHM = MinimizationAlgorithm.AUTO;
+
+  /** Dead state handling used if none is given on command line. */
+  private static final DeadStateHandling DEFAULT_DEAD_STATE_HANDLING = DeadStateHandling.KEEP;
+
   /**
-   * Program entry. Command line arguments are not in use.
+   * Program entry. Argument <code>--algorithm</code> followed by name of one of
+   * {@link MinimizationAlgorithm} constants selects algorithm which finds equivalent states,
+   * {@link MinimizationAlgorithm#AUTO} by default. Argument <code>--dead-states</code> followed by
+   * name of one of {@link DeadStateHandling} constants selects how dead states are handled,
+   * {@link DeadStateHandling#KEEP} by default. Unknown argument or name, or missing name, is
+   * reported with usage on <i>stderr</i> and program exits with status 1, as is invalid definition
+   * of <i>DFA</i>. Message gives line and column of text which is not in expected format, or names
+   * state which is used but not declared.
    * 
    * @param args - command line arguments
    * @throws IOException if I/O errors occurs
    */
-  public static void main(String[] args) throws IOException, DFAException {
-    DFADefinition dfaDefinition = new DFADefinition(System.in);
-    DFA dfa = new DFA(dfaDefinition);
-    DFA minimizedDFA = DFAMinimizer.minimize(dfa);
+  public static void main(String[] args) throws IOException {
+    MinimizationAlgorithm algorithm = DEFAULT_ALGORITHM;
+    DeadStateHandling deadStateHandling = DEFAULT_DEAD_STATE_HANDLING;
+    for (int i = 0; i < args.length; i++) {
+      if (!args[i].equals(ALGORITHM_ARGUMENT) && !args[i].equals(DEAD_STATES_ARGUMENT)) {
+        exitWithError("unknown argument " + args[i]);
+        return;
+      }
+      if (i + 1 == args.length) {
+        exitWithError("missing name after " + args[i]);
+        return;
+      }
+      if (args[i].equals(ALGORITHM_ARGUMENT)) {
+        algorithm = findConstant(MinimizationAlgorithm.class, args[++i]);
+        if (algorithm == null) {
+          exitWithError("unknown algorithm " + args[i] + ", expected one of "
+              + Arrays.toString(MinimizationAlgorithm.values()));
+          return;
+        }
+      } else {
+        deadStateHandling = findConstant(DeadStateHandling.class, args[++i]);
+        if (deadStateHandling == null) {
+          exitWithError("unknown dead state handling " + args[i] + ", expected one of "
+              + Arrays.toString(DeadStateHandling.values()));
+          return;
+        }
+      }
+    }
+
+    DFA minimizedDFA;
+    try {
+      DFADefinition dfaDefinition = DFADefinition.parse(System.in);
+      DFA dfa = new DFA(dfaDefinition);
+      minimizedDFA = DFAMinimizer.minimize(dfa, algorithm, deadStateHandling);
+    } catch (DFAException e) {
+      System.err.println("invalid definition: " + e.getMessage());
+      System.exit(1);
+      return;
+    }
     DFADefinition.write(System.out, minimizedDFA);
   }
 
+  /**
+   * Returns constant of given enum type with given name.
+   * 
+   * @param type - enum type
+   * @param name - name of constant
+   * @return constant with given name, or <code>null</code> if there is none
+   */
+  private static <E extends Enum<E>> E findConstant(Class<E> type, String name) {
+    for (E constant : type.getEnumConstants()) {
+      if (constant.name().equals(name)) {
+        return constant;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Prints given message and usage to <i>stderr</i> and exits with status 1.
+   * 
+   * @param message - description of error
+   */
+  private static void exitWithError(String message) {
+    System.err.println(message);
+    System.err.println(USAGE);
+    System.exit(1);
+  }
+
 }
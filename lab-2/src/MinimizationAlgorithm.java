@@ -0,0 +1,48 @@
+/**
+ * Algorithms with which {@link DFAMinimizer} can find equivalent states of <i>Deterministic Finite
+ * Automaton</i>. All algorithms give the same minimized automaton for complete automaton.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+public enum MinimizationAlgorithm {
+
+  /**
+   * Marks pairs of unequal states in table of all pairs of states. Takes time and memory quadratic
+   * in number of states.
+   */
+  TABLE_FILLING,
+
+  /**
+   * <i>Hopcroft's</i> partition refinement. Takes <i>O(n k log n)</i> time and <i>O(n k)</i>
+   * memory, where <i>n</i> is number of states and <i>k</i> size of alphabet.
+   */
+  HOPCROFT,
+
+  /**
+   * <i>Brzozowski's</i> double reversal and determinization. Takes time exponential in number of
+   * states in the worst case, and is fast only if reversed automaton has few reachable subsets.
+   */
+  BRZOZOWSKI,
+
+  /**
+   * Partition refinement of <i>Valmari and Lehtinen</i>, which refines transitions together with
+   * states. Takes <i>O(n + m log m)</i> time, where <i>m</i> is number of transitions, so it suits
+   * sparse automata with many missing transitions.
+   */
+  VALMARI_LEHTINEN,
+
+  /**
+   * <i>Moore's</i> partition refinement whose rounds are computed in parallel on common
+   * <code>ForkJoinPool</code>. Takes <i>O(n k)</i> work per round and at most <i>n</i> rounds,
+   * so it suits large automata which are minimized in few rounds on machines with many cores.
+   */
+  PARALLEL_MOORE,
+
+  /**
+   * Selects one of other algorithms from number of states, size of alphabet and density of
+   * transition function of automaton: {@link #VALMARI_LEHTINEN} if less than one in eight of all
+   * possible transitions exist and {@link #HOPCROFT} otherwise.
+   */
+  AUTO
+
+}
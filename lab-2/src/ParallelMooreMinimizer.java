@@ -0,0 +1,345 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds equivalent states of <i>Deterministic Finite Automaton</i> with <i>Moore's</i> partition
+ * refinement, whose rounds are computed in parallel on {@link ForkJoinPool}. States are first
+ * split into acceptable and unacceptable ones. In each round every state gets signature, which is
+ * its block together with blocks of its successors, and states are divided into new blocks by
+ * their signatures, until a round does not create a new block. <br>
+ * Signatures do not depend on each other, so range of states is split into parts which are
+ * computed by different threads. Signature is kept as 64-bit hash, and states with the same hash
+ * are put into block of the first such state. Afterwards every state is compared with the first
+ * state of its block, also in parallel, and if two different signatures had the same hash, round
+ * is repeated on one thread with full comparison of signatures. Only assigning of blocks to hashes
+ * is sequential, which takes <i>O(n)</i> time per round, while the rest takes <i>O(n k)</i>. <br>
+ * Number of rounds is at most number of states, but it is usually much smaller, so this suits
+ * large automata on machines with many cores. Missing transitions go to an implicit unacceptable
+ * sink state.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+final class ParallelMooreMinimizer {
+
+  /** Number of transitions which are visited by one task without splitting it further. */
+  private static final int SEQUENTIAL_TRANSITIONS = 1 << 14;
+
+  /** Marks empty slot of hash table of signatures. */
+  private static final int EMPTY = -1;
+
+  /** Pool on which rounds are computed. */
+  private final ForkJoinPool pool;
+
+  /** Number of states, including sink state if automaton is not complete. */
+  private final int stateCount;
+
+  /** Number of symbols. */
+  private final int symbolCount;
+
+  /**
+   * Index of state to which automaton goes from state <code>s</code> over symbol <code>a</code>,
+   * stored at <code>s * symbolCount + a</code>, where missing transitions go to sink state.
+   */
+  private final int[] transitions;
+
+  /** Block of each state in previous round. */
+  private int[] blocks;
+
+  /** Block of each state in current round. */
+  private int[] nextBlocks;
+
+  /** Number of blocks in current round. */
+  private int blockCount;
+
+  /** Hash of signature of each state. */
+  private final long[] signatures;
+
+  /** First state which has the same hash of signature as each state. */
+  private final int[] representatives;
+
+  /** Hash of signature of each slot of hash table. */
+  private final long[] tableSignatures;
+
+  /** First state with signature of each slot of hash table, or {@link #EMPTY}. */
+  private final int[] tableStates;
+
+  /**
+   * Creates partition of states of given automaton into acceptable and unacceptable states.
+   * 
+   * @param dfa automaton whose states are partitioned
+   * @param pool pool on which rounds are computed
+   */
+  private ParallelMooreMinimizer(final IndexedDFA dfa, final ForkJoinPool pool) {
+    this.pool = pool;
+    int realStates = dfa.states.length;
+    stateCount = dfa.isComplete() ? realStates : realStates + 1;
+    symbolCount = dfa.symbols.length;
+
+    transitions = new int[stateCount * symbolCount];
+    for (int i = 0; i < transitions.length; i++) {
+      int target = i < dfa.transitions.length ? dfa.transitions[i] : -1;
+      transitions[i] = target < 0 ? realStates : target;
+    }
+
+    blocks = new int[stateCount];
+    nextBlocks = new int[stateCount];
+    boolean hasAcceptable = false;
+    boolean hasUnacceptable = false;
+    for (int state = 0; state < stateCount; state++) {
+      boolean acceptable = state < realStates && dfa.acceptable[state];
+      hasAcceptable |= acceptable;
+      hasUnacceptable |= !acceptable;
+      nextBlocks[state] = acceptable ? 1 : 0;
+    }
+    if (!hasUnacceptable) {
+      Arrays.fill(nextBlocks, 0);
+    }
+    blockCount = hasAcceptable && hasUnacceptable ? 2 : 1;
+
+    signatures = new long[stateCount];
+    representatives = new int[stateCount];
+    int tableSize = Integer.highestOneBit(Math.max(1, stateCount)) * 4;
+    tableSignatures = new long[tableSize];
+    tableStates = new int[tableSize];
+  }
+
+  /**
+   * Returns block of each state of given automaton, such that two states are in the same block if
+   * and only if they are equivalent. Rounds are computed on common pool, so they use all cores.
+   * 
+   * @param dfa automaton whose equivalent states are found
+   * @return block of each state
+   */
+  static int[] findBlocks(final IndexedDFA dfa) {
+    return findBlocks(dfa, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns block of each state of given automaton, such that two states are in the same block if
+   * and only if they are equivalent. Rounds are computed on given pool.
+   * 
+   * @param dfa automaton whose equivalent states are found
+   * @param pool pool on which rounds are computed
+   * @return block of each state
+   */
+  static int[] findBlocks(final IndexedDFA dfa, final ForkJoinPool pool) {
+    if (dfa.states.length == 0) {
+      return new int[0];
+    }
+    ParallelMooreMinimizer minimizer = new ParallelMooreMinimizer(dfa, pool);
+    minimizer.refine();
+    return Arrays.copyOf(minimizer.nextBlocks, dfa.states.length);
+  }
+
+  /**
+   * Computes rounds until a round does not create a new block.
+   */
+  private void refine() {
+    int previousCount;
+    do {
+      previousCount = blockCount;
+      int[] swap = blocks;
+      blocks = nextBlocks;
+      nextBlocks = swap;
+
+      pool.invoke(new SignatureTask(0, stateCount));
+      assignBlocks(false);
+      AtomicBoolean collision = new AtomicBoolean();
+      pool.invoke(new VerificationTask(0, stateCount, collision));
+      if (collision.get()) {
+        assignBlocks(true);
+      }
+    } while (blockCount > previousCount);
+  }
+
+  /**
+   * Assigns new block to each state, in order of states, so that states with the same signature
+   * get the same block. Signatures are looked up by their hashes in hash table with linear probing.
+   * 
+   * @param compareSignatures <code>true</code> if signatures with the same hash should be fully
+   *        compared, otherwise they are assumed to be equal
+   */
+  private void assignBlocks(final boolean compareSignatures) {
+    Arrays.fill(tableStates, EMPTY);
+    int mask = tableStates.length - 1;
+    blockCount = 0;
+    for (int state = 0; state < stateCount; state++) {
+      long signature = signatures[state];
+      int slot = (int) signature & mask;
+      while (tableStates[slot] != EMPTY && (tableSignatures[slot] != signature
+          || compareSignatures && !hasSameSignature(state, tableStates[slot]))) {
+        slot = (slot + 1) & mask;
+      }
+      if (tableStates[slot] == EMPTY) {
+        tableSignatures[slot] = signature;
+        tableStates[slot] = state;
+        nextBlocks[state] = blockCount++;
+      } else {
+        nextBlocks[state] = nextBlocks[tableStates[slot]];
+      }
+      representatives[state] = tableStates[slot];
+    }
+  }
+
+  /**
+   * Computes hash of signature of given state from blocks of previous round.
+   * 
+   * @param state state whose signature is hashed
+   * @return hash of signature
+   */
+  private long hashSignature(final int state) {
+    long hash = blocks[state];
+    int offset = state * symbolCount;
+    for (int symbol = 0; symbol < symbolCount; symbol++) {
+      hash = (hash + blocks[transitions[offset + symbol]] + 1) * 0x9E3779B97F4A7C15L;
+      hash ^= hash >>> 29;
+    }
+    return hash;
+  }
+
+  /**
+   * Returns <code>true</code> if given states have the same signature in blocks of previous round.
+   * 
+   * @param first first state
+   * @param second second state
+   * @return <code>true</code> if states have the same signature
+   */
+  private boolean hasSameSignature(final int first, final int second) {
+    if (blocks[first] != blocks[second]) {
+      return false;
+    }
+    int firstOffset = first * symbolCount;
+    int secondOffset = second * symbolCount;
+    for (int symbol = 0; symbol < symbolCount; symbol++) {
+      if (blocks[transitions[firstOffset + symbol]] != blocks[transitions[secondOffset
+          + symbol]]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Task over range of states, which is split in halves until it has at most
+   * {@link #SEQUENTIAL_TRANSITIONS} transitions.
+   */
+  private abstract class RangeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /** First state of range. */
+    final int from;
+
+    /** End (exclusive) of range. */
+    final int to;
+
+    /**
+     * Creates task over given range of states.
+     * 
+     * @param from first state of range
+     * @param to end (exclusive) of range
+     */
+    RangeTask(final int from, final int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected final void compute() {
+      if ((long) (to - from) * Math.max(1, symbolCount) <= SEQUENTIAL_TRANSITIONS) {
+        computeDirectly();
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(split(from, middle), split(middle, to));
+    }
+
+    /**
+     * Creates task over part of range.
+     * 
+     * @param from first state of part
+     * @param to end (exclusive) of part
+     * @return task over part of range
+     */
+    abstract RangeTask split(int from, int to);
+
+    /**
+     * Processes whole range on current thread.
+     */
+    abstract void computeDirectly();
+
+  }
+
+  /**
+   * Computes hashes of signatures of range of states.
+   */
+  private final class SignatureTask extends RangeTask {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates task over given range of states.
+     * 
+     * @param from first state of range
+     * @param to end (exclusive) of range
+     */
+    SignatureTask(final int from, final int to) {
+      super(from, to);
+    }
+
+    @Override
+    RangeTask split(final int from, final int to) {
+      return new SignatureTask(from, to);
+    }
+
+    @Override
+    void computeDirectly() {
+      for (int state = from; state < to; state++) {
+        signatures[state] = hashSignature(state);
+      }
+    }
+
+  }
+
+  /**
+   * Checks that every state of range has the same signature as its representative.
+   */
+  private final class VerificationTask extends RangeTask {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Set when some state has different signature than its representative. */
+    private final AtomicBoolean collision;
+
+    /**
+     * Creates task over given range of states.
+     * 
+     * @param from first state of range
+     * @param to end (exclusive) of range
+     * @param collision set when some state has different signature than its representative
+     */
+    VerificationTask(final int from, final int to, final AtomicBoolean collision) {
+      super(from, to);
+      this.collision = collision;
+    }
+
+    @Override
+    RangeTask split(final int from, final int to) {
+      return new VerificationTask(from, to, collision);
+    }
+
+    @Override
+    void computeDirectly() {
+      for (int state = from; state < to && !collision.get(); state++) {
+        if (representatives[state] != state
+            && !hasSameSignature(state, representatives[state])) {
+          collision.set(true);
+        }
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,271 @@
+import java.util.Arrays;
+
+/**
+ * Finds equivalent states of <i>Deterministic Finite Automaton</i> with algorithm of
+ * <i>Valmari and Lehtinen</i>, which refines partition of states together with partition of
+ * transitions. Transitions are first grouped by symbol, and then every block of transitions
+ * splits blocks of states by their sources, and every new block of states splits blocks of
+ * transitions by their targets, until nothing can be split. <br>
+ * Only existing transitions are visited, so time is <i>O(n + m log m)</i>, where <i>m</i> is
+ * number of transitions. This is faster than {@link HopcroftMinimizer} for sparse automata with
+ * many missing transitions, which do not have to be completed with sink state. For algorithm to
+ * be correct, missing transition must mean that no word is accepted, so states which cannot reach
+ * acceptable state are removed first. All such states are equivalent and they are put in one
+ * block.
+ * 
+ * @author Herman Zvonimir Dosilovic
+ */
+final class ValmariLehtinenMinimizer {
+
+  /**
+   * Disables creation of instances.
+   */
+  private ValmariLehtinenMinimizer() {}
+
+  /**
+   * Returns block of each state of given automaton, such that two states are in the same block if
+   * and only if they are equivalent. Missing transitions behave as transitions to an implicit
+   * unacceptable sink state.
+   * 
+   * @param dfa automaton whose equivalent states are found
+   * @return block of each state
+   */
+  static int[] findBlocks(final IndexedDFA dfa) {
+    int n = dfa.states.length;
+    int k = dfa.symbols.length;
+
+    // states which can reach acceptable state, found backwards from acceptable states
+    int[] predecessorStart = dfa.getPredecessorStart();
+    int[] predecessors = dfa.getPredecessors();
+    int[] liveIndex = new int[n];
+    int[] liveStates = new int[n];
+    int liveCount = 0;
+    Arrays.fill(liveIndex, -1);
+    for (int state = 0; state < n; state++) {
+      if (dfa.acceptable[state]) {
+        liveIndex[state] = liveCount;
+        liveStates[liveCount++] = state;
+      }
+    }
+    for (int i = 0; i < liveCount; i++) {
+      for (int symbol = 0; symbol < k; symbol++) {
+        int index = symbol * n + liveStates[i];
+        for (int j = predecessorStart[index]; j < predecessorStart[index + 1]; j++) {
+          int source = predecessors[j];
+          if (liveIndex[source] < 0) {
+            liveIndex[source] = liveCount;
+            liveStates[liveCount++] = source;
+          }
+        }
+      }
+    }
+
+    // transitions between live states, numbered in order of their symbols
+    int[] symbolStart = new int[k + 1];
+    for (int i = 0; i < liveCount; i++) {
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = dfa.transitions[liveStates[i] * k + symbol];
+        if (target >= 0 && liveIndex[target] >= 0) {
+          symbolStart[symbol + 1]++;
+        }
+      }
+    }
+    for (int symbol = 0; symbol < k; symbol++) {
+      symbolStart[symbol + 1] += symbolStart[symbol];
+    }
+    int m = symbolStart[k];
+    int[] tails = new int[m];
+    int[] heads = new int[m];
+    int[] next = Arrays.copyOf(symbolStart, k);
+    for (int i = 0; i < liveCount; i++) {
+      for (int symbol = 0; symbol < k; symbol++) {
+        int target = dfa.transitions[liveStates[i] * k + symbol];
+        if (target >= 0 && liveIndex[target] >= 0) {
+          int transition = next[symbol]++;
+          tails[transition] = i;
+          heads[transition] = liveIndex[target];
+        }
+      }
+    }
+
+    // incoming transitions of each live state
+    int[] incomingStart = new int[liveCount + 1];
+    for (int transition = 0; transition < m; transition++) {
+      incomingStart[heads[transition] + 1]++;
+    }
+    for (int i = 0; i < liveCount; i++) {
+      incomingStart[i + 1] += incomingStart[i];
+    }
+    int[] incoming = new int[m];
+    int[] nextIncoming = Arrays.copyOf(incomingStart, liveCount);
+    for (int transition = 0; transition < m; transition++) {
+      incoming[nextIncoming[heads[transition]]++] = transition;
+    }
+
+    Partition blocks = new Partition(liveCount);
+    for (int i = 0; i < liveCount; i++) {
+      if (dfa.acceptable[liveStates[i]]) {
+        blocks.mark(i);
+      }
+    }
+    blocks.split();
+
+    Partition cords = new Partition(symbolStart);
+
+    int block = 1;
+    for (int cord = 0; cord < cords.count; cord++) {
+      for (int i = cords.first[cord]; i < cords.past[cord]; i++) {
+        blocks.mark(tails[cords.elements[i]]);
+      }
+      blocks.split();
+      for (; block < blocks.count; block++) {
+        for (int i = blocks.first[block]; i < blocks.past[block]; i++) {
+          int state = blocks.elements[i];
+          for (int j = incomingStart[state]; j < incomingStart[state + 1]; j++) {
+            cords.mark(incoming[j]);
+          }
+        }
+        cords.split();
+      }
+    }
+
+    int[] result = new int[n];
+    for (int state = 0; state < n; state++) {
+      result[state] = liveIndex[state] < 0 ? blocks.count : blocks.setOf[liveIndex[state]];
+    }
+    return result;
+  }
+
+  /**
+   * Refinable partition of integers from <code>0</code> to <code>size - 1</code> into sets. Every
+   * set is a contiguous range of {@link #elements}, whose marked elements are at its start. When
+   * marked elements are split from a set, the smaller part gets new number.
+   */
+  private static final class Partition {
+
+    /** Number of sets. */
+    private int count;
+
+    /** Elements ordered so that every set is a contiguous range. */
+    private final int[] elements;
+
+    /** Position of each element in {@link #elements}. */
+    private final int[] location;
+
+    /** Set of each element. */
+    private final int[] setOf;
+
+    /** Start of each set in {@link #elements}. */
+    private final int[] first;
+
+    /** End (exclusive) of each set in {@link #elements}. */
+    private final int[] past;
+
+    /** Number of marked elements of each set. */
+    private final int[] marked;
+
+    /** Sets which have marked elements. */
+    private final int[] touched;
+
+    /** Number of sets which have marked elements. */
+    private int touchedCount;
+
+    /**
+     * Creates partition with one set of all integers from <code>0</code> to
+     * <code>size - 1</code>, or no sets if size is <code>0</code>.
+     * 
+     * @param size number of elements
+     */
+    private Partition(final int size) {
+      elements = new int[size];
+      location = new int[size];
+      setOf = new int[size];
+      first = new int[size + 1];
+      past = new int[size + 1];
+      marked = new int[size + 1];
+      touched = new int[size + 1];
+      for (int i = 0; i < size; i++) {
+        elements[i] = i;
+        location[i] = i;
+      }
+      count = size > 0 ? 1 : 0;
+      past[0] = size;
+    }
+
+    /**
+     * Creates partition of integers from <code>0</code> to last element of given array minus one,
+     * whose sets are non-empty ranges from <code>start[i]</code> to <code>start[i + 1] - 1</code>.
+     * 
+     * @param start starts of ranges, followed by number of elements
+     */
+    private Partition(final int[] start) {
+      this(start[start.length - 1]);
+      count = 0;
+      for (int i = 0; i + 1 < start.length; i++) {
+        if (start[i] == start[i + 1]) {
+          continue;
+        }
+        first[count] = start[i];
+        past[count] = start[i + 1];
+        for (int element = start[i]; element < start[i + 1]; element++) {
+          setOf[element] = count;
+        }
+        count++;
+      }
+    }
+
+    /**
+     * Moves given element to marked part of its set, unless it is already marked.
+     * 
+     * @param element element to mark
+     */
+    private void mark(final int element) {
+      int set = setOf[element];
+      int position = location[element];
+      int markedPosition = first[set] + marked[set];
+      if (position < markedPosition) {
+        return;
+      }
+      elements[position] = elements[markedPosition];
+      location[elements[position]] = position;
+      elements[markedPosition] = element;
+      location[element] = markedPosition;
+      if (marked[set]++ == 0) {
+        touched[touchedCount++] = set;
+      }
+    }
+
+    /**
+     * Splits marked elements from every set which is not completely marked, and unmarks all
+     * elements.
+     */
+    private void split() {
+      while (touchedCount > 0) {
+        int set = touched[--touchedCount];
+        int split = first[set] + marked[set];
+        if (split == past[set]) {
+          marked[set] = 0;
+          continue;
+        }
+
+        if (marked[set] <= past[set] - split) {
+          first[count] = first[set];
+          past[count] = split;
+          first[set] = split;
+        } else {
+          past[count] = past[set];
+          first[count] = split;
+          past[set] = split;
+        }
+        for (int i = first[count]; i < past[count]; i++) {
+          setOf[elements[i]] = count;
+        }
+        marked[set] = 0;
+        marked[count] = 0;
+        count++;
+      }
+    }
+
+  }
+
+}
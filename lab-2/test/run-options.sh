@@ -0,0 +1,28 @@
+#!/bin/sh
+# Runs MinDka on test cases in MinDka-options, which need command line arguments or end with an
+# error, so they cannot be run as plain input and output pairs. Case NN consists of:
+#   MinDka.in.NN   - standard input
+#   MinDka.args.NN - command line arguments on one line, if there are any
+#   MinDka.out.NN  - expected standard output
+#   MinDka.err.NN  - expected standard error, if there is any
+#
+# usage: run-options.sh <directory with compiled classes>
+
+classes=${1:?usage: run-options.sh <directory with compiled classes>}
+cases=$(dirname "$0")/MinDka-options
+actual=$(mktemp)
+failed=0
+for in in "$cases"/MinDka.in.*; do
+  n=${in##*.}
+  args=$(cat "$cases/MinDka.args.$n" 2>/dev/null)
+  # arguments are split on spaces on purpose
+  java -Dfile.encoding=UTF-8 -cp "$classes" MinDka $args < "$in" > "$actual.out" 2> "$actual.err"
+  expectedErr=$cases/MinDka.err.$n
+  [ -f "$expectedErr" ] || expectedErr=/dev/null
+  if ! cmp -s "$actual.out" "$cases/MinDka.out.$n" || ! cmp -s "$actual.err" "$expectedErr"; then
+    echo "FAIL $n"
+    failed=1
+  fi
+done
+rm -f "$actual" "$actual.out" "$actual.err"
+exit $failed
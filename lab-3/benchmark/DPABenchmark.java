@@ -0,0 +1,126 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures {@link DPA#readSymbol(Symbol)} on synthetic automata which accept balanced sequences of
+ * brackets. Size is number of kinds of brackets and length is number of symbols in sequence.
+ * Automaton pushes stack symbol of a kind for each opening bracket, pops it for matching closing
+ * bracket and accepts with empty transition once only initial stack symbol is left, so number of
+ * transitions grows with square of size.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class DPABenchmark extends Benchmark {
+
+  /** Measured automaton. */
+  private DPA dpa;
+
+  /** Sequence which automaton reads. */
+  private List<Symbol> sequence;
+
+  /**
+   * Program entry. Options are described in {@link Benchmark}.
+   *
+   * @param args command line options
+   * @throws Exception if benchmark fails
+   */
+  public static void main(final String[] args) throws Exception {
+    execute(new DPABenchmark(), args);
+  }
+
+  @Override
+  protected String name() {
+    return "DPA.readSymbol";
+  }
+
+  @Override
+  protected String[] variants() {
+    return new String[] {"DPA"};
+  }
+
+  @Override
+  protected int[] defaultSizes() {
+    return new int[] {2, 16, 128};
+  }
+
+  @Override
+  protected int[] defaultLengths() {
+    return new int[] {100, 10000};
+  }
+
+  @Override
+  protected void setUp(final String variant, final int size, final int length) {
+    if (!variant.equals("DPA")) {
+      throw new IllegalArgumentException("unknown variant " + variant);
+    }
+
+    State reading = State.of("q1");
+    State accepting = State.of("q2");
+    Symbol initialStackSymbol = Symbol.of("K");
+    Symbol[] open = new Symbol[size];
+    Symbol[] close = new Symbol[size];
+    Symbol[] pushed = new Symbol[size];
+    for (int i = 0; i < size; i++) {
+      open[i] = Symbol.of("o" + i);
+      close[i] = Symbol.of("c" + i);
+      pushed[i] = Symbol.of("X" + i);
+    }
+
+    Set<Symbol> inputSymbols = new HashSet<>(Arrays.asList(open));
+    inputSymbols.addAll(Arrays.asList(close));
+    Set<Symbol> stackSymbols = new HashSet<>(Arrays.asList(pushed));
+    stackSymbols.add(initialStackSymbol);
+
+    Map<Triplet<State, Symbol, Symbol>, Pair<State, List<Symbol>>> transitionFunction =
+        new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      for (Symbol top : stackSymbols) {
+        transitionFunction.put(new Triplet<>(reading, open[i], top),
+            new Pair<>(reading, Arrays.asList(top, pushed[i])));
+      }
+      transitionFunction.put(new Triplet<>(reading, close[i], pushed[i]),
+          new Pair<>(reading, Arrays.asList(DPA.emptySymbol)));
+    }
+    transitionFunction.put(new Triplet<>(reading, DPA.emptySymbol, initialStackSymbol),
+        new Pair<>(accepting, Arrays.asList(initialStackSymbol)));
+
+    dpa =
+        new DPA(new HashSet<>(Arrays.asList(reading, accepting)), inputSymbols, stackSymbols,
+            transitionFunction, reading, initialStackSymbol,
+            new HashSet<>(Arrays.asList(accepting)));
+
+    Random random = new Random(seed);
+    sequence = new ArrayList<>(length);
+    Deque<Integer> unclosed = new ArrayDeque<>();
+    for (int i = 0; i < length; i++) {
+      if (!unclosed.isEmpty() && (unclosed.size() == length - i || random.nextBoolean())) {
+        sequence.add(close[unclosed.pop()]);
+      } else {
+        int kind = random.nextInt(size);
+        unclosed.push(kind);
+        sequence.add(open[kind]);
+      }
+    }
+  }
+
+  @Override
+  protected Object run() {
+    dpa.reset();
+    for (Symbol symbol : sequence) {
+      if (!dpa.readSymbol(symbol)) {
+        return Boolean.FALSE;
+      }
+    }
+    dpa.readSymbol(DPA.emptySymbol);
+    return dpa.inAcceptingState();
+  }
+
+}
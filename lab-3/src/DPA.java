@@ -20,7 +20,7 @@ import java.util.Stack;
 public class DPA {
 
   /** Represents empty symbol. */
-  public static final Symbol emptySymbol = new Symbol("$");
+  public static final Symbol emptySymbol = Symbol.of("$");
 
   /** Finite set of states. */
   private Set<State> states;
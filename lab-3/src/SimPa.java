@@ -116,7 +116,7 @@ public final class SimPa {
     for (String stringSequence : reader.readLine().split("\\|")) {
       List<Symbol> sequence = new ArrayList<>();
       for (String stringSymbol : stringSequence.split(",")) {
-        sequence.add(new Symbol(stringSymbol));
+        sequence.add(Symbol.of(stringSymbol));
       }
       sequences.add(sequence);
     }
@@ -138,7 +138,7 @@ public final class SimPa {
     if (line.isEmpty())
       return states;
     for (String stringState : line.split(",")) {
-      states.add(new State(stringState));
+      states.add(State.of(stringState));
     }
 
     return states;
@@ -155,7 +155,7 @@ public final class SimPa {
     Set<Symbol> alphabet = new HashSet<>();
 
     for (String stringSymbol : reader.readLine().split(",")) {
-      alphabet.add(new Symbol(stringSymbol));
+      alphabet.add(Symbol.of(stringSymbol));
     }
 
     return alphabet;
@@ -180,7 +180,7 @@ public final class SimPa {
    * @throws IOException if I/O error occurs
    */
   private static State readInitialState(final BufferedReader reader) throws IOException {
-    return new State(reader.readLine());
+    return State.of(reader.readLine());
   }
 
   /**
@@ -199,15 +199,15 @@ public final class SimPa {
 
     String transition;
     while ((transition = reader.readLine()) != null && !transition.isEmpty()) {
-      State currentState = new State(transition.split("->")[0].split(",")[0]);
-      Symbol inputSymbol = new Symbol(transition.split("->")[0].split(",")[1]);
-      Symbol currentStackSymbol = new Symbol(transition.split("->")[0].split(",")[2]);
+      State currentState = State.of(transition.split("->")[0].split(",")[0]);
+      Symbol inputSymbol = Symbol.of(transition.split("->")[0].split(",")[1]);
+      Symbol currentStackSymbol = Symbol.of(transition.split("->")[0].split(",")[2]);
 
-      State nextState = new State(transition.split("->")[1].split(",")[0]);
+      State nextState = State.of(transition.split("->")[1].split(",")[0]);
       List<Symbol> addStackSymbols = new ArrayList<>();
       String s = transition.split("->")[1].split(",")[1];
       for (int i = s.length(); i > 0; i--)
-        addStackSymbols.add(new Symbol(s.substring(i - 1, i)));
+        addStackSymbols.add(Symbol.of(s.substring(i - 1, i)));
 
       transitionFunction.put(new Triplet<>(currentState, inputSymbol, currentStackSymbol),
           new Pair<>(nextState, addStackSymbols));
@@ -0,0 +1,134 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Measures {@link Parser#parse(String)} on synthetic strings which match grammar of parser. Since
+ * grammar is fixed, size is maximal depth to which start symbol is nested in generated string and
+ * length is approximate length of string. Parser writes produced symbols to standard output, so
+ * standard output is discarded while benchmark runs.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class ParserBenchmark extends Benchmark {
+
+  /** String which is parsed. */
+  private String string;
+
+  /**
+   * Program entry. Options are described in {@link Benchmark}.
+   *
+   * @param args - command line options
+   * @throws Exception if benchmark fails
+   */
+  public static void main(final String[] args) throws Exception {
+    execute(new ParserBenchmark(), args);
+  }
+
+  @Override
+  protected String name() {
+    return "Parser.parse";
+  }
+
+  @Override
+  protected String[] variants() {
+    return new String[] {"recursive"};
+  }
+
+  @Override
+  protected int[] defaultSizes() {
+    return new int[] {1, 16};
+  }
+
+  @Override
+  protected int[] defaultLengths() {
+    return new int[] {100, 10000};
+  }
+
+  @Override
+  protected void setUp(final String variant, final int size, final int length) {
+    if (!variant.equals("recursive")) {
+      throw new IllegalArgumentException("unknown variant " + variant);
+    }
+
+    StringBuilder builder = new StringBuilder();
+    generateS(builder, new Random(seed), length, 0, size);
+    string = builder.toString();
+
+    System.setOut(new PrintStream(new OutputStream() {
+      @Override
+      public void write(final int b) {}
+
+      @Override
+      public void write(final byte[] b, final int off, final int len) {}
+    }));
+    if (!Parser.parse(string)) {
+      throw new IllegalStateException("generated string does not match grammar");
+    }
+  }
+
+  @Override
+  protected Object run() {
+    return Parser.parse(string);
+  }
+
+  /**
+   * Appends string produced from symbol <i>S</i>.
+   *
+   * @param builder - builder to which string is appended
+   * @param random - generator of random numbers
+   * @param budget - approximate length of string
+   * @param depth - depth of this symbol
+   * @param maxDepth - maximal depth of symbol <i>S</i>
+   */
+  private static void generateS(final StringBuilder builder, final Random random,
+      final int budget, final int depth, final int maxDepth) {
+    int half = Math.max(0, budget - 1) / 2;
+    if (random.nextBoolean()) { // S -> aAB
+      builder.append('a');
+      generateA(builder, half);
+      generateB(builder, random, budget - 1 - half, depth, maxDepth);
+    } else { // S -> bBA
+      builder.append('b');
+      generateB(builder, random, budget - 1 - half, depth, maxDepth);
+      generateA(builder, half);
+    }
+  }
+
+  /**
+   * Appends string produced from symbol <i>A</i>.
+   *
+   * @param builder - builder to which string is appended
+   * @param budget - approximate length of string
+   */
+  private static void generateA(final StringBuilder builder, final int budget) {
+    if (budget < 3) { // A -> a
+      builder.append('a');
+      return;
+    }
+    builder.append('b'); // A -> bC, C -> AA
+    int half = (budget - 1) / 2;
+    generateA(builder, half);
+    generateA(builder, budget - 1 - half);
+  }
+
+  /**
+   * Appends string produced from symbol <i>B</i>.
+   *
+   * @param builder - builder to which string is appended
+   * @param random - generator of random numbers
+   * @param budget - approximate length of string
+   * @param depth - depth of symbol <i>S</i> which contains this symbol
+   * @param maxDepth - maximal depth of symbol <i>S</i>
+   */
+  private static void generateB(final StringBuilder builder, final Random random,
+      final int budget, final int depth, final int maxDepth) {
+    if (depth >= maxDepth || budget < 6) { // B -> empty
+      return;
+    }
+    builder.append("cc"); // B -> ccSbc
+    generateS(builder, random, budget - 4, depth + 1, maxDepth);
+    builder.append("bc");
+  }
+
+}
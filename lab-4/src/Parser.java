@@ -16,6 +16,9 @@ public final class Parser {
   /** Represents grammar which this parser users. */
   private static Map<NonTerminalSymbol, List<Production>> grammar;
 
+  /** Start symbol of grammar. */
+  private static NonTerminalSymbol startSymbol;
+
   /** String for which to check if matches grammar. */
   private static String string;
 
@@ -25,17 +28,7 @@ public final class Parser {
   /** Represents acceptability of read string. */
   private static boolean accept = true;
 
-  /**
-   * Program entry. Command line arguments are not in use.
-   * 
-   * @param args - command line arguments
-   * @throws IOException if I/O errors occurs
-   */
-  public static void main(String[] args) throws IOException {
-    BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-    string = reader.readLine();
-    reader.close();
-
+  static {
     // defining nonterminal symbols
     NonTerminalSymbol A = new NonTerminalSymbol("A");
     NonTerminalSymbol B = new NonTerminalSymbol("B");
@@ -54,16 +47,45 @@ public final class Parser {
     grammar.put(A, Arrays.asList(new Production(A, b, C), new Production(A, a)));
     grammar.put(B, Arrays.asList(new Production(B, c, c, S, b, c), new Production(B, empty)));
     grammar.put(C, Arrays.asList(new Production(C, A, A)));
+    startSymbol = S;
+  }
 
-    S.produce();
+  /**
+   * Program entry. Command line arguments are not in use.
+   * 
+   * @param args - command line arguments
+   * @throws IOException if I/O errors occurs
+   */
+  public static void main(String[] args) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+    String line = reader.readLine();
+    reader.close();
 
-    if (accept && index + 1 == string.length()) {
+    if (parse(line)) {
       System.out.println("\nDA");
     } else {
       System.out.println("\nNE");
     }
   }
 
+  /**
+   * Parses given string from the start symbol of grammar and returns <code>true</code> if it
+   * matches grammar. Nonterminal symbols are written to standard output as they are produced.
+   * Parser is reset before parsing, so it can be called more than once.
+   * 
+   * @param string - string to parse
+   * @return <code>true</code> if given string matches grammar, <code>false</code> otherwise
+   */
+  public static boolean parse(String string) {
+    Parser.string = string;
+    index = -1;
+    accept = true;
+
+    startSymbol.produce();
+
+    return accept && index + 1 == string.length();
+  }
+
   /**
    * Returns content of parsers head.
    * 
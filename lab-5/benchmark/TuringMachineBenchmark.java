@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures {@link TuringMachine#run(List, int)} on synthetic machines. Size is number of states
+ * which machine cycles through while it moves right and length is number of input symbols on tape.
+ * Machine inverts every input symbol on its way to blank symbol at the right end of tape, then
+ * returns to marker at the left end and halts there in accepting state, so it makes twice as many
+ * steps as there are input symbols.
+ *
+ * @author Herman Zvonimir Dosilovic
+ */
+public final class TuringMachineBenchmark extends Benchmark {
+
+  /** Measured machine. */
+  private TuringMachine machine;
+
+  /** Initial tape. */
+  private List<Symbol> tape;
+
+  /**
+   * Program entry. Options are described in {@link Benchmark}.
+   *
+   * @param args command line options
+   * @throws Exception if benchmark fails
+   */
+  public static void main(final String[] args) throws Exception {
+    execute(new TuringMachineBenchmark(), args);
+  }
+
+  @Override
+  protected String name() {
+    return "TuringMachine.run";
+  }
+
+  @Override
+  protected String[] variants() {
+    return new String[] {"TuringMachine"};
+  }
+
+  @Override
+  protected int[] defaultSizes() {
+    return new int[] {1, 64};
+  }
+
+  @Override
+  protected int[] defaultLengths() {
+    return new int[] {100, 10000};
+  }
+
+  @Override
+  protected void setUp(final String variant, final int size, final int length) {
+    if (!variant.equals("TuringMachine")) {
+      throw new IllegalArgumentException("unknown variant " + variant);
+    }
+
+    Symbol zero = Symbol.of("0");
+    Symbol one = Symbol.of("1");
+    Symbol blank = Symbol.of("B");
+    Symbol marker = Symbol.of(">");
+
+    List<State> states = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      states.add(State.of("r" + i));
+    }
+    State back = State.of("l");
+    states.add(back);
+
+    Map<Pair<State, Symbol>, Triplet<State, Symbol, String>> transitionFunction =
+        new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      State next = states.get((i + 1) % size);
+      transitionFunction.put(new Pair<>(states.get(i), zero), new Triplet<>(next, one, "R"));
+      transitionFunction.put(new Pair<>(states.get(i), one), new Triplet<>(next, zero, "R"));
+      transitionFunction.put(new Pair<>(states.get(i), blank), new Triplet<>(back, blank, "L"));
+    }
+    transitionFunction.put(new Pair<>(back, zero), new Triplet<>(back, zero, "L"));
+    transitionFunction.put(new Pair<>(back, one), new Triplet<>(back, one, "L"));
+
+    machine =
+        new TuringMachine(new TuringMachineDefinition(states,
+            Arrays.asList(zero, one, blank, marker), blank, Arrays.asList(zero, one),
+            transitionFunction, states.get(0), Arrays.asList(back)));
+
+    Random random = new Random(seed);
+    tape = new ArrayList<>(length + 2);
+    tape.add(marker);
+    for (int i = 0; i < length; i++) {
+      tape.add(random.nextBoolean() ? one : zero);
+    }
+    tape.add(blank);
+  }
+
+  @Override
+  protected Object run() {
+    return machine.run(tape, 1);
+  }
+
+}
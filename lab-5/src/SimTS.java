@@ -50,7 +50,7 @@ public final class SimTS {
     List<Symbol> tape = new ArrayList<>();
     String line = reader.readLine();
     for (int i = 0; i < line.length(); i++) {
-      tape.add(new Symbol(line.substring(i, i + 1)));
+      tape.add(Symbol.of(line.substring(i, i + 1)));
     }
     return tape;
   }
@@ -72,7 +72,7 @@ public class TuringMachineDefinition {
    */
   public void readStates(BufferedReader reader) throws IOException {
     for (String stateName : reader.readLine().split(",")) {
-      states.add(new State(stateName));
+      states.add(State.of(stateName));
     }
   }
 
@@ -84,7 +84,7 @@ public class TuringMachineDefinition {
    */
   public void readInputSymbols(BufferedReader reader) throws IOException {
     for (String symbolName : reader.readLine().split(",")) {
-      inputSymbols.add(new Symbol(symbolName));
+      inputSymbols.add(Symbol.of(symbolName));
     }
   }
 
@@ -96,7 +96,7 @@ public class TuringMachineDefinition {
    */
   public void readTapeAlphabetSymbols(BufferedReader reader) throws IOException {
     for (String symbolName : reader.readLine().split(",")) {
-      tapeAlphabetSymbols.add(new Symbol(symbolName));
+      tapeAlphabetSymbols.add(Symbol.of(symbolName));
     }
   }
 
@@ -107,7 +107,7 @@ public class TuringMachineDefinition {
    * @throws IOException if I/O error occurs.
    */
   public void readBlankSymbol(BufferedReader reader) throws IOException {
-    blankSymbol = new Symbol(reader.readLine());
+    blankSymbol = Symbol.of(reader.readLine());
   }
 
   /**
@@ -122,7 +122,7 @@ public class TuringMachineDefinition {
       return;
     }
     for (String stateName : line.split(",")) {
-      acceptingStates.add(new State(stateName));
+      acceptingStates.add(State.of(stateName));
     }
   }
 
@@ -133,7 +133,7 @@ public class TuringMachineDefinition {
    * @throws IOException if I/O error occurs.
    */
   public void readInitialState(BufferedReader reader) throws IOException {
-    initialState = new State(reader.readLine());
+    initialState = State.of(reader.readLine());
   }
 
   /**
@@ -148,10 +148,10 @@ public class TuringMachineDefinition {
       String leftSide = transition.split("->")[0];
       String rightSide = transition.split("->")[1];
 
-      State state = new State(leftSide.split(",")[0]);
-      Symbol symbol = new Symbol(leftSide.split(",")[1]);
-      State nextState = new State(rightSide.split(",")[0]);
-      Symbol nextSymbol = new Symbol(rightSide.split(",")[1]);
+      State state = State.of(leftSide.split(",")[0]);
+      Symbol symbol = Symbol.of(leftSide.split(",")[1]);
+      State nextState = State.of(rightSide.split(",")[0]);
+      Symbol nextSymbol = Symbol.of(rightSide.split(",")[1]);
       String shift = rightSide.split(",")[2];
       transitionFunction
           .put(new Pair<>(state, symbol), new Triplet<>(nextState, nextSymbol, shift));